@@ -2,6 +2,7 @@ plugins {
 	java
 	id("org.springframework.boot") version "3.4.5"
 	id("io.spring.dependency-management") version "1.1.7"
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.sentinel"
@@ -31,6 +32,7 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	implementation("org.jsoup:jsoup:1.20.1")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	implementation("com.github.mpkorstanje:simmetrics-core:4.1.1")
 
 	compileOnly("org.projectlombok:lombok")
@@ -54,3 +56,56 @@ tasks.named<org.springframework.boot.gradle.tasks.bundling.BootJar>("bootJar") {
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
+
+// 📊 Benchmarks: ./gradlew jmh, then ./gradlew jmhCheck to compare against src/jmh/baseline.json
+jmh {
+	warmupIterations.set(2)
+	iterations.set(5)
+	fork.set(1)
+	resultFormat.set("JSON")
+	resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
+
+tasks.register("jmhCheck") {
+	group = "verification"
+	description = "Fails if any JMH score regressed past the tolerance (-Pjmh.tolerance, default 0.10) versus src/jmh/baseline.json."
+
+	val results = layout.buildDirectory.file("results/jmh/results.json")
+	val baseline = layout.projectDirectory.file("src/jmh/baseline.json")
+	val tolerance = (findProperty("jmh.tolerance") as String?)?.toDouble() ?: 0.10
+
+	doLast {
+		val resultsFile = results.get().asFile
+		val baselineFile = baseline.asFile
+		if (!resultsFile.exists()) throw GradleException("No JMH results at $resultsFile, run ./gradlew jmh first")
+		if (!baselineFile.exists()) throw GradleException("No JMH baseline at $baselineFile, copy a trusted $resultsFile there")
+
+		fun scores(file: File): Map<String, Pair<String, Double>> {
+			@Suppress("UNCHECKED_CAST")
+			val runs = groovy.json.JsonSlurper().parse(file) as List<Map<String, Any?>>
+			return runs.associate { run ->
+				val params = (run["params"] as Map<*, *>?)?.entries?.joinToString(",") { "${it.key}=${it.value}" } ?: ""
+				val metric = run["primaryMetric"] as Map<*, *>
+				"${run["benchmark"]}($params)" to (run["mode"] as String to (metric["score"] as Number).toDouble())
+			}
+		}
+
+		val current = scores(resultsFile)
+		val baselineScores = scores(baselineFile)
+		val missing = baselineScores.keys - current.keys
+		if (missing.isNotEmpty()) logger.lifecycle("ℹ️ Not in these results, so not compared: ${missing.joinToString()}")
+		val regressions = baselineScores.mapNotNull { (name, expected) ->
+			val actual = current[name] ?: return@mapNotNull null
+			val (mode, before) = expected
+			// Throughput modes are better when higher, time modes when lower
+			val change = if (mode == "thrpt") (before - actual.second) / before else (actual.second - before) / before
+			if (change > tolerance) "$name: ${"%.3f".format(before)} -> ${"%.3f".format(actual.second)} (${"%.1f".format(change * 100)}% worse)" else null
+		}
+
+		if (regressions.isNotEmpty()) {
+			throw GradleException("JMH regressions beyond ${tolerance * 100}%:\n" + regressions.joinToString("\n"))
+		}
+		logger.lifecycle("✅ No JMH regressions beyond ${tolerance * 100}% across ${current.size} benchmarks")
+	}
+}
+
@@ -0,0 +1,90 @@
+package com.sentinel.sentinel.service;
+
+import com.sentinel.sentinel.Task;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round-trip throughput of {@link MatcherClient} against a local stub matcher that answers
+ * immediately, isolating connection handling and (de)serialization from model inference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MatcherClientBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int queries;
+
+    private HttpServer server;
+    private MatcherClient client;
+    private List<Task> tasks;
+    private List<MatcherClient.BatchQuery> batchQueries;
+    private List<String> sentences;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Otherwise Nagle's algorithm on the stub's split header/body writes dominates the numbers
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/match/batch", exchange -> respond(exchange, batchResponse()));
+        server.createContext("/health", exchange -> respond(exchange, "{\"ready\": true}"));
+        server.start();
+
+        client = new MatcherClient(server.getAddress().getPort(), Duration.ofSeconds(2), Duration.ofSeconds(10));
+
+        tasks = new ArrayList<>(queries);
+        for (int i = 0; i < queries; i++) {
+            tasks.add(new Task("https://example.com", "Something happened number " + i));
+        }
+        batchQueries = tasks.stream()
+                .map(task -> new MatcherClient.BatchQuery(task.getId(), task.getQuery(), null))
+                .toList();
+        sentences = Collections.nCopies(120, "CSK scored 201 runs in the final over.");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Benchmark
+    public MatcherClient.BatchResponse scoreSentences() {
+        return client.scoreSentences("https://example.com", sentences, batchQueries, 0.7).join();
+    }
+
+    private String batchResponse() {
+        StringBuilder body = new StringBuilder("{\"results\": [");
+        for (int i = 0; i < tasks.size(); i++) {
+            if (i > 0) body.append(',');
+            body.append("{\"id\": \"").append(tasks.get(i).getId()).append("\", \"matched\": false}");
+        }
+        return body.append("]}").toString();
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.readAllBytes();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.sentinel.sentinel.service;
+
+import com.sentinel.sentinel.SentinelProperties;
+import com.sentinel.sentinel.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler overhead for many targets: how long it takes to dispatch one tick's worth of due checks
+ * through {@link CheckExecutor} until every check has run, and how long {@link PollingPolicy} takes
+ * to plan the next delay for a large target group. The checks themselves do no work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SchedulerBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int targets;
+
+    private CheckExecutor executor;
+    private PollingPolicy polling;
+    private List<String> urls;
+    private List<Task> tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SentinelProperties.Scheduler settings = new SentinelProperties().getScheduler();
+        executor = new CheckExecutor(settings.getMaxConcurrentChecks(), settings.getMaxConcurrentChecksPerHost(),
+                settings.isVirtualThreads());
+        polling = new PollingPolicy(settings);
+
+        urls = new ArrayList<>(targets);
+        tasks = new ArrayList<>(targets);
+        for (int i = 0; i < targets; i++) {
+            String url = "https://host" + (i % 50) + ".example.com/page/" + i;
+            urls.add(url);
+            Task task = new Task(url, "query " + i);
+            task.setIntervalSeconds(30 + i % 60);
+            tasks.add(task);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public void dispatchTick() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(urls.size());
+        for (String url : urls) {
+            if (!executor.submit(url, done::countDown)) {
+                done.countDown();
+            }
+        }
+        done.await();
+    }
+
+    @Benchmark
+    public Duration planNextDelay() {
+        Duration base = polling.baseInterval(tasks);
+        double backoff = polling.adjust(1.0, false, base);
+        return polling.nextDelay(base, backoff);
+    }
+}
@@ -0,0 +1,126 @@
+package com.sentinel.sentinel.store;
+
+import com.sentinel.sentinel.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of task persistence against logs of 1k, 10k and 100k tasks.
+ *
+ * <p>{@code register} and {@code setComplete} measure what {@link Task#register()} and
+ * {@link Task#setComplete(boolean)} delegate to; {@code load} measures reading the JSON snapshot,
+ * which is what the observer's {@code loadTasksFromFile} does on startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskStoreBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int tasks;
+
+    private Path dir;
+    private File snapshot;
+    private File loadSnapshot;
+    private Path live;
+    private TaskStore store;
+    private List<String> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("sentinel-jmh");
+        snapshot = Files.createDirectory(dir.resolve("seed")).resolve(TaskStore.DEFAULT_FILE_NAME).toFile();
+
+        TaskStore seed = new TaskStore(snapshot);
+        for (int i = 0; i < tasks; i++) {
+            seed.add(new Task("https://example.com/page/" + (i % 500), "query " + i), true);
+        }
+        ids = new ArrayList<>(tasks);
+        for (Task task : seed.getTasks()) {
+            ids.add(task.getId());
+        }
+        seed.close();
+
+        // The open store holds the log lock, so loading is measured on a copy
+        loadSnapshot = Files.createDirectory(dir.resolve("load")).resolve(TaskStore.DEFAULT_FILE_NAME).toFile();
+        Files.copy(snapshot.toPath(), loadSnapshot.toPath());
+    }
+
+    /**
+     * Opens a fresh copy of the seeded log, so every iteration starts from {@link #tasks} tasks and
+     * an empty WAL however many {@code register} added before.
+     */
+    @Setup(Level.Iteration)
+    public void openStore() throws IOException {
+        live = Files.createTempDirectory(dir, "live");
+        File copy = live.resolve(TaskStore.DEFAULT_FILE_NAME).toFile();
+        Files.copy(snapshot.toPath(), copy.toPath());
+        store = new TaskStore(copy);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeStore() throws IOException {
+        store.close();
+        delete(live);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        delete(dir);
+    }
+
+    private static void delete(Path root) throws IOException {
+        try (var files = Files.walk(root)) {
+            files.map(Path::toFile).sorted((a, b) -> b.compareTo(a)).forEach(File::delete);
+        }
+    }
+
+    /**
+     * Short iterations: at a few microseconds per call, a default ten-second iteration adds
+     * millions of tasks, and compacting a store that size runs the fork out of heap.
+     */
+    @Benchmark
+    @Warmup(iterations = 2, time = 3)
+    @Measurement(iterations = 5, time = 2)
+    public boolean register() {
+        int n = ThreadLocalRandom.current().nextInt();
+        return store.add(new Task("https://example.com/page/" + (n & 511), "new query " + n), false);
+    }
+
+    @Benchmark
+    public boolean setComplete() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return store.setComplete(ids.get(random.nextInt(ids.size())), random.nextBoolean());
+    }
+
+    @Benchmark
+    public Optional<Task> get() {
+        return store.get(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+    /** Completions from many threads at once, which the store's writer commits in groups. */
+    @Benchmark
+    @Threads(8)
+    public boolean setCompleteContended() {
+        return setComplete();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int load() {
+        TaskStore loaded = new TaskStore(loadSnapshot);
+        int size = loaded.size();
+        loaded.close();
+        return size;
+    }
+}
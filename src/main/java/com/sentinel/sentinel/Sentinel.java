@@ -1,9 +1,15 @@
 package com.sentinel.sentinel;
 
-import com.sentinel.sentinel.service.PythonProcessManager;
+import com.sentinel.sentinel.event.TaskEvent;
+import com.sentinel.sentinel.event.TaskEventListener;
 import com.sentinel.sentinel.service.TaskObserverService;
+import com.sentinel.sentinel.store.TaskStore;
 
-import java.io.File;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Sentinel SDK entrypoint.
@@ -15,37 +21,65 @@ import java.io.File;
  * <pre>
  *     Sentinel.start();
  *     Task task = Sentinel.register("https://example.com", "Some query");
- *     if (task.isComplete()) {
- *         System.out.println("🎉 Match found!");
- *     }
+ *     Sentinel.addListener(event -> {
+ *         if (event.type() == TaskEvent.Type.COMPLETED) {
+ *             System.out.println("🎉 Match found!");
+ *         }
+ *     });
  * </pre>
+ *
+ * Tasks returned by {@code register} are also marked complete in place once their query matches.
  */
 public class Sentinel {
 
     private static boolean initialized = false;
     private static TaskObserverService observer;
-    private static PythonProcessManager pythonManager;
+
+    /** Tasks handed out by {@link #register}, updated in place when the observer completes them. */
+    private static final Map<String, Task> registered = new ConcurrentHashMap<>();
 
     /**
      * Initializes the Sentinel engine.
-     * - Starts the Python NLP server (Flask app)
      * - Starts the scheduled task checking service
+     * - Starts the JVM's shared Python NLP workers in the background, if any task needs them
      */
-    public static void start() {
+    public static synchronized void start() {
         if (initialized) return;
 
-        pythonManager = new PythonProcessManager();
-        try {
-            int port = pythonManager.findAvailablePort();
-            pythonManager.startPythonServer(port);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
         observer = new TaskObserverService();
+        observer.getEvents().subscribe(event -> {
+            if (event.type() != TaskEvent.Type.COMPLETED) return;
+            Task task = registered.remove(event.taskId());
+            if (task != null) task.markComplete();
+        });
+        observer.startObserving();
         initialized = true;
     }
 
+    /**
+     * Subscribes to check results, failures and completions of every observed task.
+     *
+     * @param listener called on the checking thread for each event; keep it fast
+     * @throws IllegalStateException if {@link #start()} has not been called
+     */
+    public static void addListener(TaskEventListener listener) {
+        if (observer == null) {
+            throw new IllegalStateException("Call Sentinel.start() before adding listeners");
+        }
+        observer.getEvents().subscribe(listener);
+    }
+
+    /**
+     * Stops delivering events to a listener added with {@link #addListener}.
+     *
+     * @param listener the listener to remove
+     */
+    public static void removeListener(TaskEventListener listener) {
+        if (observer != null) {
+            observer.getEvents().unsubscribe(listener);
+        }
+    }
+
     /**
      * Registers a new task for observation.
      *
@@ -55,17 +89,88 @@ public class Sentinel {
      */
     public static Task register(String url, String query) {
         Task task = new Task(url, query);
-        task.register();
+        registerAll(List.of(task));
+        return task;
+    }
+
+    /**
+     * Registers a new task for observation with a preferred polling interval.
+     *
+     * @param url The URL of the webpage to observe.
+     * @param query The natural language condition to match.
+     * @param interval How often to check the page; adapted automatically to how often it changes.
+     * @return A Task object that can be queried for completion status.
+     */
+    public static Task register(String url, String query, Duration interval) {
+        Task task = new Task(url, query);
+        task.setIntervalSeconds((int) interval.toSeconds());
+        registerAll(List.of(task));
         return task;
     }
 
+    /**
+     * Registers many tasks with a single write to the task log. Tasks that duplicate a stored task
+     * (same target, query and completion state), or an earlier task in the batch, are skipped.
+     * If Sentinel is running, the new tasks are observed immediately.
+     *
+     * @param tasks The tasks to register, e.g. created with {@code new Task(url, query)}.
+     * @return The tasks that were added.
+     */
+    public static List<Task> registerAll(Collection<Task> tasks) {
+        List<Task> added = observer != null
+                ? observer.registerAll(tasks)
+                : TaskStore.getDefault().addAll(tasks, false);
+        added.forEach(task -> registered.put(task.getId(), task));
+        return added;
+    }
+
     /**
      * Removes a task from observation and deletes it from the task log.
      *
      * @param task The task to stop observing.
      */
     public static void unregister(Task task) {
+        registered.remove(task.getId());
         task.removeTrace();
+        if (observer != null) {
+            observer.unregister(task.getId());
+        }
+    }
+
+    /**
+     * Removes many tasks from observation and deletes them from the task log with a single write.
+     *
+     * @param tasks The tasks to stop observing.
+     * @return How many stored tasks were removed.
+     */
+    public static int unregisterAll(Collection<Task> tasks) {
+        List<String> ids = tasks.stream().map(Task::getId).toList();
+        ids.forEach(registered::remove);
+        return observer != null
+                ? observer.unregisterAll(ids)
+                : TaskStore.getDefault().removeAll(ids);
+    }
+
+    /**
+     * Temporarily stops checking a task. The task stays registered and can be resumed.
+     *
+     * @param task The task to pause.
+     */
+    public static void pause(Task task) {
+        if (observer != null) {
+            observer.pause(task.getId());
+        }
+    }
+
+    /**
+     * Resumes checking a task paused with {@link #pause(Task)}.
+     *
+     * @param task The task to resume.
+     */
+    public static void resume(Task task) {
+        if (observer != null) {
+            observer.resume(task.getId());
+        }
     }
 
     /**
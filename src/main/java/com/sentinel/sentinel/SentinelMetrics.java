@@ -0,0 +1,137 @@
+package com.sentinel.sentinel;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers, counters and gauges for the observation pipeline.
+ *
+ * <p>Meters are registered on Micrometer's global registry. Spring Boot adds its own registries to
+ * it, so everything here shows up under {@code /actuator/metrics} and {@code /actuator/prometheus}
+ * when running as an application, and still works (unexported) when Sentinel is used as an SDK.
+ */
+public class SentinelMetrics {
+
+    private static final SentinelMetrics GLOBAL = new SentinelMetrics(Metrics.globalRegistry);
+
+    private final MeterRegistry registry;
+
+    public SentinelMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @return metrics bound to Micrometer's global registry
+     */
+    public static SentinelMetrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Records how long a page download took.
+     *
+     * @param host the target's host
+     * @param outcome {@code ok}, {@code not_modified} or {@code error}
+     * @param nanos elapsed time
+     */
+    public void recordFetch(String host, String outcome, long nanos) {
+        registry.timer("sentinel.fetch", "host", host, "outcome", outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a full request/response cycle against the matcher.
+     *
+     * @param endpoint the matcher endpoint, e.g. {@code /match/batch}
+     * @param nanos elapsed time
+     */
+    public void recordMatcherRoundTrip(String endpoint, long nanos) {
+        registry.timer("sentinel.matcher.roundtrip", "endpoint", endpoint).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records model inference time as reported by the matcher itself.
+     *
+     * @param millis inference time in milliseconds
+     */
+    public void recordInference(double millis) {
+        registry.timer("sentinel.matcher.inference").record(Math.round(millis * 1_000_000), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records how long a task store write took.
+     *
+     * @param operation {@code append} or {@code compact}
+     * @param nanos elapsed time
+     */
+    public void recordStoreWrite(String operation, long nanos) {
+        registry.timer("sentinel.store.write", "operation", operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records how late a check started compared to when it was planned.
+     *
+     * @param nanos delay between the planned and the actual start
+     */
+    public void recordSchedulerLag(long nanos) {
+        registry.timer("sentinel.scheduler.lag").record(Math.max(0, nanos), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts the outcome of evaluating tasks.
+     *
+     * @param result {@code matched}, {@code unmatched}, {@code skipped} or {@code error}
+     * @param count how many tasks had that outcome
+     */
+    public void countChecks(String result, int count) {
+        if (count > 0) {
+            registry.counter("sentinel.checks", "result", result).increment(count);
+        }
+    }
+
+    /**
+     * Counts tasks decided by their compiled condition, without a matcher.
+     *
+     * @param count how many tasks were decided
+     */
+    public void countConditionChecks(int count) {
+        if (count > 0) {
+            registry.counter("sentinel.condition.decided").increment(count);
+        }
+    }
+
+    /**
+     * Counts lookups in the entailment score cache.
+     *
+     * @param hits sentence/query pairs answered from the cache
+     * @param misses sentence/query pairs that needed inference
+     */
+    public void countCacheLookups(int hits, int misses) {
+        if (hits > 0) registry.counter("sentinel.matcher.cache", "result", "hit").increment(hits);
+        if (misses > 0) registry.counter("sentinel.matcher.cache", "result", "miss").increment(misses);
+    }
+
+    /**
+     * Counts sentence/query pairs kept for entailment or pruned by the embedding prefilter.
+     *
+     * @param kept pairs among a task's top-k most similar sentences
+     * @param pruned pairs skipped without inference
+     */
+    public void countPrefilter(int kept, int pruned) {
+        if (kept > 0) registry.counter("sentinel.matcher.prefilter", "result", "kept").increment(kept);
+        if (pruned > 0) registry.counter("sentinel.matcher.prefilter", "result", "pruned").increment(pruned);
+    }
+
+    /**
+     * Exposes a live value, e.g. the number of checks waiting for a permit.
+     *
+     * @param name the gauge name
+     * @param value read whenever the gauge is scraped
+     */
+    public void gauge(String name, Supplier<Number> value) {
+        Gauge.builder(name, value).register(registry);
+    }
+}
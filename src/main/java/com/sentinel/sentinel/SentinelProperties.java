@@ -0,0 +1,185 @@
+package com.sentinel.sentinel;
+
+import com.sentinel.sentinel.store.FsyncPolicy;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Tunable settings for Sentinel, bound from {@code sentinel.*} in {@code application.properties}.
+ *
+ * <p>When Sentinel is used as an SDK outside of Spring, a default instance is used.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "sentinel")
+public class SentinelProperties {
+
+    /** Settings for matching engines and calls to the Python matcher. */
+    private final Matcher matcher = new Matcher();
+
+    /** Settings for how checks are scheduled and run. */
+    private final Scheduler scheduler = new Scheduler();
+
+    /** Settings for the task log. */
+    private final Store store = new Store();
+
+    /** Settings for downloading pages and extracting their text. */
+    private final Fetch fetch = new Fetch();
+
+    /** Settings for splitting targets across several Sentinel nodes. */
+    private final Cluster cluster = new Cluster();
+
+    @Getter
+    @Setter
+    public static class Matcher {
+        /**
+         * Engine used by tasks that don't choose one: {@code nli} for the Python entailment model or
+         * {@code java} for the in-process matcher. The Python sidecar only starts when a task needs it.
+         */
+        private String engine = "nli";
+
+        /** Minimum query/sentence cosine similarity for the {@code java} engine to report a match. */
+        private double similarityThreshold = 0.6;
+
+        /** Entailment probability a sentence must exceed for the {@code nli} engine to report a match. */
+        private double entailmentThreshold = 0.7;
+
+        /** Maximum number of sentence/query entailment scores cached. */
+        private int cacheSize = 50_000;
+
+        /** How long a cached entailment score stays valid. */
+        private Duration cacheTtl = Duration.ofHours(24);
+
+        /**
+         * How many sentences per page, the ones whose embeddings are closest to the query, the
+         * {@code nli} engine scores for tasks that don't choose; 0 scores every sentence.
+         */
+        private int topK = 8;
+
+        /** Maximum number of query and sentence embeddings cached for the top-k prefilter. */
+        private int embeddingCacheSize = 100_000;
+
+        /** Number of Python matcher processes; each holds its own copy of the model. */
+        private int workers = 1;
+
+        /** How often each matcher worker's {@code /health} is polled. */
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+        /** How long a matcher worker may take to load its model before it is restarted. */
+        private Duration startupTimeout = Duration.ofMinutes(2);
+
+        /** Upper bound of the exponential backoff between restarts of a failing worker. */
+        private Duration maxRestartBackoff = Duration.ofMinutes(1);
+
+        /** How long shutdown waits for in-flight matcher requests before stopping the workers. */
+        private Duration drainTimeout = Duration.ofSeconds(10);
+
+        /** How long to wait when opening a connection to the matcher. */
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /** How long to wait for a match response, including model inference. */
+        private Duration requestTimeout = Duration.ofSeconds(60);
+    }
+
+    @Getter
+    @Setter
+    public static class Scheduler {
+        /** Run each check on its own virtual thread when the JVM supports it (Java 21+). */
+        private boolean virtualThreads = true;
+
+        /** Maximum number of checks running at once across all targets. */
+        private int maxConcurrentChecks = 64;
+
+        /** Maximum number of checks running at once against a single host. */
+        private int maxConcurrentChecksPerHost = 4;
+
+        /** Polling interval for tasks that don't request one. */
+        private Duration defaultInterval = Duration.ofSeconds(30);
+
+        /** Shortest interval adaptive polling may tighten to for frequently changing pages. */
+        private Duration minInterval = Duration.ofSeconds(10);
+
+        /** Longest interval adaptive polling may back off to for static pages. */
+        private Duration maxInterval = Duration.ofMinutes(15);
+
+        /** Factor the interval grows by after each check that finds the page unchanged. */
+        private double backoffMultiplier = 1.5;
+
+        /** Random spread applied to every delay, as a fraction of it (0.1 = ±10%). */
+        private double jitter = 0.1;
+
+        /** Sustained requests per second sent to one host, across all of its targets. */
+        private double hostRequestsPerSecond = 1.0;
+
+        /** Requests a host that has been idle may receive back to back before the rate applies. */
+        private int hostBurst = 4;
+
+        /**
+         * How long a host is left alone after a 429 or 503 without {@code Retry-After}; doubled for
+         * each consecutive one.
+         */
+        private Duration throttlePenalty = Duration.ofSeconds(30);
+
+        /** Longest a host is left alone after throttling, whatever its {@code Retry-After} says. */
+        private Duration maxThrottlePenalty = Duration.ofHours(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Fetch {
+        /** Bytes of a response body read at most; the rest of a larger page is ignored. */
+        private long maxBodyBytes = 2_000_000;
+
+        /** Characters of text kept per page region (the whole page, or one task selector). */
+        private int maxTextChars = 20_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Store {
+        /**
+         * When task log writes are forced to disk: {@code never}, {@code batch} (once per group of
+         * writes, without making callers wait) or {@code always} (callers wait for the fsync).
+         */
+        private FsyncPolicy fsync = FsyncPolicy.BATCH;
+    }
+
+    @Getter
+    @Setter
+    public static class Cluster {
+        /**
+         * Split targets across the nodes sharing {@link #membershipFile} by consistent hashing of
+         * their host; each node only fetches the targets it owns.
+         */
+        private boolean enabled = false;
+
+        /** This node's id, unique in the cluster; defaults to the host name and process id. */
+        private String nodeId;
+
+        /** Where operators can reach this node, e.g. {@code http://10.0.0.5:8080}; informational. */
+        private String address;
+
+        /** Membership file every node can reach, e.g. on a shared volume. */
+        private String membershipFile = ".sentinel_cluster.json";
+
+        /**
+         * Log of the tasks registered, completed and removed on any node, reachable by every node
+         * like {@link #membershipFile}; it is how a task reaches the node that owns its target.
+         */
+        private String taskFeedFile = ".sentinel_tasks.jsonl";
+
+        /** How long a node stays a member without renewing; a crashed node's targets move after this. */
+        private Duration lease = Duration.ofSeconds(15);
+
+        /** How often each node renews its lease and picks up membership changes. */
+        private Duration heartbeatInterval = Duration.ofSeconds(5);
+
+        /** Points per node on the hash ring; more points spread targets more evenly. */
+        private int virtualNodes = 128;
+    }
+}
@@ -1,15 +1,18 @@
 package com.sentinel.sentinel;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.sentinel.sentinel.store.TaskStore;
 import lombok.Getter;
 import lombok.Setter;
+import org.jsoup.select.QueryParser;
+import org.jsoup.select.Selector;
 
-import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a monitorable task that is persistently stored in a local JSON file.
@@ -17,19 +20,16 @@ import java.util.*;
  * query to track, and a boolean flag indicating completion.
  *
  * <p>The {@code Task} class supports registering, updating, removing, and serializing
- * task data to and from a local `.task_log.json` file using Jackson.
+ * task data through the shared {@link TaskStore}, which persists to the local `.task_log.json` file.
  */
 @Getter
 @Setter
 public class Task {
-    /** Unique identifier for the task. */
-    private final String id = UUID.randomUUID().toString();
-
-    @JsonIgnore
-    private final String FILE_NAME = ".task_log.json";
+    /** Selectors that already parsed, so tasks rebuilt by the store on every read aren't parsed again. */
+    private static final Set<String> VALID_SELECTORS = ConcurrentHashMap.newKeySet();
 
-    @JsonIgnore
-    private final String TASK_LIST = "taskList";
+    /** Unique identifier for the task. */
+    private final String id;
 
     public String getId() {
         return id;
@@ -56,8 +56,36 @@ public class Task {
     /** Whether this task has been marked as complete. */
     private boolean complete = false;
 
+    /**
+     * Preferred polling interval in seconds, or 0 for the configured default. The observer adapts
+     * the actual interval to how often the page changes. Set before {@link #register()}.
+     */
+    private int intervalSeconds = 0;
+
+    /**
+     * Matching engine for this task, {@code "nli"} or {@code "java"}, or null for the configured
+     * default ({@code sentinel.matcher.engine}). Set before {@link #register()}.
+     */
+    private String matcher;
+
+    /**
+     * How many of a page's sentences, the ones most similar to the query, are scored by the
+     * {@code nli} engine, or 0 for the configured default ({@code sentinel.matcher.top-k}). Set
+     * before {@link #register()}.
+     */
+    private int topK = 0;
+
+    /**
+     * CSS selector of the page region the query is about, e.g. {@code #scoreboard}, or null for the
+     * whole page. Only text inside matching elements is handed to the matcher. Set before
+     * {@link #register()}.
+     */
+    private String selector;
+
     /** Default constructor for deserialization frameworks. */
-    public Task() {}
+    public Task() {
+        this.id = UUID.randomUUID().toString();
+    }
 
     /**
      * Constructs a new {@code Task} with a specified target and query.
@@ -66,8 +94,51 @@ public class Task {
      * @param query the natural-language description of what to observe
      */
     public Task(String target, String query) {
+        this();
+        this.target = target;
+        this.query = query;
+    }
+
+    /**
+     * Reconstructs a previously persisted {@code Task} without touching the task log.
+     *
+     * @param id the stored identifier
+     * @param target the URL or system to be monitored
+     * @param query the natural-language description of what to observe
+     * @param complete whether the task has been marked as complete
+     */
+    @JsonCreator
+    public Task(@JsonProperty("id") String id,
+                @JsonProperty("target") String target,
+                @JsonProperty("query") String query,
+                @JsonProperty("complete") boolean complete) {
+        this.id = id;
         this.target = target;
         this.query = query;
+        this.complete = complete;
+    }
+
+    /**
+     * Scopes the query to a region of the page. Set before {@link #register()}.
+     *
+     * @param selector a CSS selector, e.g. {@code #scoreboard}, or null or blank for the whole page
+     * @throws IllegalArgumentException if the selector is not valid CSS
+     */
+    public void setSelector(String selector) {
+        if (selector == null || selector.isBlank()) {
+            this.selector = null;
+            return;
+        }
+        selector = selector.strip();
+        if (!VALID_SELECTORS.contains(selector)) {
+            try {
+                QueryParser.parse(selector);
+            } catch (Selector.SelectorParseException e) {
+                throw new IllegalArgumentException("Invalid selector '" + selector + "': " + e.getMessage(), e);
+            }
+            VALID_SELECTORS.add(selector);
+        }
+        this.selector = selector;
     }
 
     /**
@@ -78,29 +149,21 @@ public class Task {
     public void setComplete(boolean complete) {
         this.complete = complete;
 
-        ObjectMapper mapper = new ObjectMapper();
-        File file = new File(FILE_NAME);
-
         try {
-            if (!file.exists()) return;
-
-            ObjectNode root = (ObjectNode) mapper.readTree(file);
-            ArrayNode taskList = (ArrayNode) root.withArray(TASK_LIST);
-
-            for (int i = 0; i < taskList.size(); i++) {
-                JsonNode taskNode = taskList.get(i);
-                if (taskNode.has("id") && taskNode.get("id").asText().equals(this.id)) {
-                    ((ObjectNode) taskNode).put("complete", complete);
-                    break;
-                }
-            }
-
-            mapper.writerWithDefaultPrettyPrinter().writeValue(file, root);
+            TaskStore.getDefault().setComplete(id, complete);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Marks this instance complete without writing to the task log, for callers that persisted the
+     * completion themselves or completed the same task through another instance.
+     */
+    public void markComplete() {
+        this.complete = true;
+    }
+
     /**
      * Returns whether the task has equal target, query, and complete variables
      * @param o
@@ -142,69 +205,36 @@ public class Task {
     }
 
     /**
-     * Registers this task by appending its JSON representation to the task log file.
+     * Hashes the id only: it is final, and equal tasks always share it.
+     *
+     * @return a hash code consistent with {@link #equals(Object)}
+     */
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+
+    /**
+     * Registers this task by appending it to the task log.
      * If the file does not exist, it is created.
      */
     public void register() {
         register(false);
     }
 
+    /**
+     * Registers this task by appending it to the task log.
+     *
+     * @param force if false, the task is not added when an equal task (ignoring id) already exists
+     */
     public void register(boolean force) {
-        // TODO add an optional parameter call force, which will be set to
-        //  false by default. If force is false, enable
-        //  smart duplicate tracking, which will not add a task if it's
-        //  .equals() method is true
-
-        ObjectMapper mapper = new ObjectMapper();
-        File file = new File(FILE_NAME);
-
         try {
-            ObjectNode root;
-
-            if (file.exists()) {
-                root = (ObjectNode) mapper.readTree(file);
-            } else {
-                root = mapper.createObjectNode();
-                root.putArray(TASK_LIST);
-            }
-
-            ArrayNode taskList = (ArrayNode) root.withArray(TASK_LIST);
-            boolean shouldAdd;
-            if(!force) {
-                shouldAdd = true;
-                for(JsonNode taskNode: taskList) {
-                    Task existing = new Task(
-                            taskNode.get("target").asText(),
-                            taskNode.get("query").asText()
-                    );
-                    existing.setComplete(taskNode.get("complete").asBoolean());
-
-                    // Check for exact match ignoring id
-                    if (this.equals(existing, true)) {
-                        shouldAdd = false;
-                        break;
-                    }
-                }
-            }
-            else {
-                // If force is true always add
-                shouldAdd = true;
-            }
-
-            if(shouldAdd){
-                ObjectNode taskJson = mapper.createObjectNode();
-                taskJson.put("id", id);
-                taskJson.put("target", target);
-                taskJson.put("query", query);
-                taskJson.put("complete", complete);
-
-                taskList.add(taskJson);
-                mapper.writerWithDefaultPrettyPrinter().writeValue(file, root);
-            }
+            TaskStore.getDefault().add(this, force);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
+
     /**
      * Removes this task's record from the task log file, effectively deleting its trace.
      */
@@ -212,51 +242,18 @@ public class Task {
         removeTrace(true);
     }
 
+    /**
+     * Removes this task's record from the task log file.
+     *
+     * @param force if true, removes a task equal to this one ignoring id; otherwise removes by id
+     */
     public void removeTrace(boolean force) {
-        // TODO add an optional variable force which is true by default,
-        //  and performs the same actions as before
-        // If force is true, search by everything except id (look for .equals() method)
-        // If force is false, continue indexing by id
-        ObjectMapper mapper = new ObjectMapper();
-        File file = new File(FILE_NAME);
-
         try {
-            if (!file.exists()) return;
-
-            ObjectNode root = (ObjectNode) mapper.readTree(file);
-            ArrayNode taskList = (ArrayNode) root.withArray(TASK_LIST);
-
-            boolean taskRemoved = false;
-
-            for (int i = 0; i < taskList.size(); i++) {
-                // Retrieving each task from tasklist
-                JsonNode taskNode = taskList.get(i);
-                Task other = new Task(
-                        taskNode.get("target").asText(),
-                        taskNode.get("query").asText()
-                );
-                other.setComplete(taskNode.get("complete").asBoolean());
-
-                if(force) {
-                    // Force = true: match by content (ignore ID)
-                    if(this.equals(other, true)) {
-                        taskList.remove(i);
-                        taskRemoved = true;
-                        break;
-                    }
-                }
-                else{
-                    // Force = false: match by every parameter including ID
-                    if (this.equals(other, false)) {
-                        taskList.remove(i);
-                        taskRemoved = true;
-                        break;
-                    }
-                }
-            }
-
-            if (taskRemoved){
-                mapper.writerWithDefaultPrettyPrinter().writeValue(file, root);
+            TaskStore store = TaskStore.getDefault();
+            if (force) {
+                store.removeMatching(this);
+            } else {
+                store.remove(id);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -269,8 +266,7 @@ public class Task {
      * @return a {@code JsonNode} representing this task
      */
     public JsonNode toJson() {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode node = mapper.createObjectNode();
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
         node.put("id", id);
         node.put("target", target);
         node.put("query", query);
@@ -0,0 +1,249 @@
+package com.sentinel.sentinel.cluster;
+
+import com.sentinel.sentinel.SentinelProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps this node's lease in the {@link MembershipStore} and decides which targets it observes.
+ *
+ * <p>Every heartbeat renews the lease and reads the live members. When they change, a new
+ * {@link HashRing} is built and handed to the listener, which starts targets this node now owns and
+ * stops the ones that moved away. Because every node builds the same ring from the same members,
+ * each target host has exactly one owner once all nodes have seen the change.
+ *
+ * <p>A node that can't renew its lease owns nothing once its previous lease runs out, since the
+ * other nodes will have dropped it from their rings by then.
+ *
+ * <p>Tasks are shared the same way, through the {@link TaskFeed}: changes this node publishes are
+ * appended to it, and every heartbeat hands the changes other nodes appended since the last one to
+ * the change listener. Changes that couldn't be appended are retried on the next heartbeat.
+ */
+public class ClusterCoordinator {
+
+    private final String nodeId;
+    private final String address;
+    private final MembershipStore store;
+    private final TaskFeed tasks;
+    private final Duration lease;
+    private final Duration heartbeatInterval;
+    private final int virtualNodes;
+    private final ScheduledExecutorService timer;
+
+    private volatile HashRing ring;
+    /** {@link System#nanoTime()} until which this node's last renewed lease holds. */
+    private volatile long leaseValidUntil;
+    private volatile Consumer<HashRing> listener = ring -> {};
+    private volatile Consumer<List<TaskChange>> changeListener = changes -> {};
+    /** Changes published but not yet appended to the feed, in order. */
+    private final List<TaskChange> outbox = new ArrayList<>();
+    /** Where the next read of the feed starts; only touched on the heartbeat thread. */
+    private long feedPosition;
+
+    /**
+     * @param nodeId this node's id, unique in the cluster
+     * @param address where operators can reach this node, or null
+     * @param store membership shared by every node
+     * @param tasks task changes shared by every node
+     * @param lease how long a node stays a member without renewing
+     * @param heartbeatInterval how often the lease is renewed; well below {@code lease}
+     * @param virtualNodes ring points per node
+     */
+    public ClusterCoordinator(String nodeId, String address, MembershipStore store, TaskFeed tasks, Duration lease,
+                              Duration heartbeatInterval, int virtualNodes) {
+        this.nodeId = nodeId;
+        this.address = address;
+        this.store = store;
+        this.tasks = tasks;
+        this.lease = lease;
+        this.heartbeatInterval = heartbeatInterval;
+        this.virtualNodes = virtualNodes;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sentinel-cluster-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (heartbeatInterval.compareTo(lease) >= 0) {
+            System.err.println("⚠️ Cluster heartbeat interval " + heartbeatInterval + " is not shorter than the lease "
+                    + lease + "; nodes will drop in and out of the cluster");
+        }
+    }
+
+    /**
+     * Builds a coordinator from {@code sentinel.cluster.*}, with membership and task changes in the
+     * configured files.
+     *
+     * @param settings the cluster settings
+     * @return the coordinator, not yet started
+     * @throws IOException if the membership or task feed file's path can't be resolved
+     */
+    public static ClusterCoordinator fromSettings(SentinelProperties.Cluster settings) throws IOException {
+        String nodeId = settings.getNodeId() != null && !settings.getNodeId().isBlank()
+                ? settings.getNodeId()
+                : defaultNodeId();
+        return new ClusterCoordinator(nodeId, settings.getAddress(),
+                new FileMembershipStore(new File(settings.getMembershipFile())),
+                new FileTaskFeed(new File(settings.getTaskFeedFile())),
+                settings.getLease(), settings.getHeartbeatInterval(), settings.getVirtualNodes());
+    }
+
+    /**
+     * Joins the cluster and keeps renewing this node's lease. The first heartbeat runs before this
+     * returns, so {@link #owns(String)} is meaningful right away when the store is reachable, and
+     * every change already in the task feed has been handed to {@code changeListener}.
+     *
+     * @param listener called with the new ring whenever the membership changes, on the heartbeat
+     *                 thread (or the caller's, for the first heartbeat)
+     * @param changeListener called on the same thread with task changes read from the feed, in the
+     *                       order they were appended, including the ones this node published
+     */
+    public void start(Consumer<HashRing> listener, Consumer<List<TaskChange>> changeListener) {
+        this.listener = listener;
+        this.changeListener = changeListener;
+        heartbeat();
+        long interval = heartbeatInterval.toMillis();
+        timer.scheduleWithFixedDelay(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops renewing and leaves the cluster, so other nodes take over this node's targets on their
+     * next heartbeat instead of after its lease expires.
+     */
+    public void stop() {
+        timer.shutdownNow();
+        ring = null;
+        try {
+            store.leave(nodeId);
+            System.out.println("👋 Left the cluster as " + nodeId);
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not leave the cluster, other nodes will wait for the lease to expire");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Shares task changes with every node. They are appended right away when the feed is reachable,
+     * otherwise on a later heartbeat, and never out of order.
+     *
+     * @param changes the changes, in order
+     */
+    public void publish(List<TaskChange> changes) {
+        if (changes.isEmpty()) return;
+        synchronized (outbox) {
+            outbox.addAll(changes);
+            flush();
+        }
+    }
+
+    /**
+     * @param target the target URL
+     * @return whether this node should observe the target: it holds a valid lease and the ring
+     *         assigns the target's host to it
+     */
+    public boolean owns(String target) {
+        HashRing current = ring;
+        if (current == null || System.nanoTime() - leaseValidUntil > 0) return false;
+        return nodeId.equals(current.owner(HashRing.hostOf(target)));
+    }
+
+    /**
+     * How long a node waits before observing a target it just took over. By then the previous
+     * owner has seen the same membership on its own heartbeat and stopped, so the page isn't
+     * fetched by both.
+     *
+     * @return the heartbeat interval
+     */
+    public Duration handoffDelay() {
+        return heartbeatInterval;
+    }
+
+    /**
+     * @return this node's id
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @return ids of the members in the current ring, empty before the first successful heartbeat
+     */
+    public Set<String> members() {
+        HashRing current = ring;
+        return current == null ? Set.of() : current.nodes();
+    }
+
+    private void heartbeat() {
+        long started = System.nanoTime();
+        try {
+            List<Member> members = store.renew(new Member(nodeId, address, System.currentTimeMillis() + lease.toMillis()));
+            leaseValidUntil = started + lease.toNanos();
+
+            Set<String> ids = members.stream().map(Member::id).collect(Collectors.toSet());
+            HashRing current = ring;
+            if (current == null || !current.nodes().equals(ids)) {
+                HashRing next = new HashRing(ids, virtualNodes);
+                ring = next;
+                System.out.println("🧭 Cluster membership: " + ids.size() + " node(s) " + ids.stream().sorted().toList()
+                        + ", this node is " + nodeId);
+                listener.accept(next);
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not renew cluster lease for " + nodeId);
+            e.printStackTrace();
+        }
+
+        synchronized (outbox) {
+            flush();
+        }
+        pull();
+    }
+
+    /** Appends the outbox to the feed; the caller holds its monitor. */
+    private void flush() {
+        if (outbox.isEmpty()) return;
+        try {
+            tasks.append(outbox);
+            outbox.clear();
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not share " + outbox.size() + " task change(s), retrying on the next heartbeat");
+            e.printStackTrace();
+        }
+    }
+
+    /** Hands every change appended to the feed since the last read to the change listener. */
+    private void pull() {
+        try {
+            while (true) {
+                TaskFeed.Batch batch = tasks.read(feedPosition);
+                if (batch.next() == feedPosition) return;
+                feedPosition = batch.next();
+                if (!batch.changes().isEmpty()) changeListener.accept(batch.changes());
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not read task changes from other nodes");
+            e.printStackTrace();
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            host = "node";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+}
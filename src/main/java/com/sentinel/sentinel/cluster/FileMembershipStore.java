@@ -0,0 +1,109 @@
+package com.sentinel.sentinel.cluster;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Membership kept in a JSON file that every node can reach, e.g. on a shared volume.
+ *
+ * <p>Each operation reads, updates and rewrites the whole file under an exclusive file lock, so
+ * nodes in other processes never see a partial update. Nodes in the same JVM also serialize on a
+ * monitor per file, since the JVM doesn't allow two of its channels to lock the same file.
+ */
+public class FileMembershipStore implements MembershipStore {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final Map<String, Object> MONITORS = new ConcurrentHashMap<>();
+
+    private record State(List<Member> members) {}
+
+    private final File file;
+    private final Object monitor;
+
+    /**
+     * @param file the membership file, created on first use
+     * @throws IOException if the file's path can't be resolved
+     */
+    public FileMembershipStore(File file) throws IOException {
+        this.file = file.getCanonicalFile();
+        this.monitor = MONITORS.computeIfAbsent(this.file.getPath(), path -> new Object());
+    }
+
+    @Override
+    public List<Member> renew(Member self) throws IOException {
+        synchronized (monitor) {
+            try (FileChannel channel = open(); FileLock ignored = channel.lock()) {
+                List<Member> members = live(read(channel));
+                members.removeIf(member -> member.id().equals(self.id()));
+                members.add(self);
+                write(channel, members);
+                return List.copyOf(members);
+            }
+        }
+    }
+
+    @Override
+    public void leave(String nodeId) throws IOException {
+        synchronized (monitor) {
+            try (FileChannel channel = open(); FileLock ignored = channel.lock()) {
+                List<Member> members = live(read(channel));
+                if (members.removeIf(member -> member.id().equals(nodeId))) {
+                    write(channel, members);
+                }
+            }
+        }
+    }
+
+    private FileChannel open() throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static List<Member> read(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size == 0) return new ArrayList<>();
+
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) break;
+        }
+        try {
+            State state = MAPPER.readValue(buffer.array(), 0, buffer.position(), State.class);
+            return state.members() == null ? new ArrayList<>() : new ArrayList<>(state.members());
+        } catch (IOException e) {
+            // A torn write from a crashed node: start over, live nodes re-add themselves on renewal
+            System.err.println("⚠️ Unreadable cluster membership file, resetting: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private static void write(FileChannel channel, List<Member> members) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(MAPPER.writeValueAsBytes(new State(members)));
+        channel.truncate(0);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+    }
+
+    private static List<Member> live(List<Member> members) {
+        long now = System.currentTimeMillis();
+        members.removeIf(member -> !member.isAlive(now));
+        return members;
+    }
+}
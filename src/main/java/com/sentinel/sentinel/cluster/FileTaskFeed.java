@@ -0,0 +1,137 @@
+package com.sentinel.sentinel.cluster;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Task changes kept as JSON lines in a file that every node can reach, e.g. next to the membership
+ * file on a shared volume.
+ *
+ * <p>Appends hold an exclusive file lock and reads a shared one, so nodes in other processes never
+ * see a partial line. Nodes in the same JVM also serialize on a monitor per file, since the JVM
+ * doesn't allow two of its channels to lock the same file. A read position is a byte offset, and a
+ * read stops at the last complete line within {@value #MAX_READ_BYTES} bytes.
+ */
+public class FileTaskFeed implements TaskFeed {
+
+    /** Leaves out null fields, which would otherwise read back as JSON null nodes. */
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final int MAX_READ_BYTES = 1 << 20;
+
+    private static final Map<String, Object> MONITORS = new ConcurrentHashMap<>();
+
+    private final File file;
+    private final Object monitor;
+
+    /**
+     * @param file the feed file, created on first use
+     * @throws IOException if the file's path can't be resolved
+     */
+    public FileTaskFeed(File file) throws IOException {
+        this.file = file.getCanonicalFile();
+        this.monitor = MONITORS.computeIfAbsent(this.file.getPath(), path -> new Object());
+    }
+
+    @Override
+    public void append(List<TaskChange> changes) throws IOException {
+        if (changes.isEmpty()) return;
+
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (TaskChange change : changes) {
+            lines.write(MAPPER.writeValueAsBytes(change));
+            lines.write('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+
+        synchronized (monitor) {
+            try (FileChannel channel = open(); FileLock ignored = channel.lock()) {
+                long position = channel.size();
+                if (position > 0 && !endsWithNewline(channel, position)) {
+                    // A node crashed mid-append; end its torn line so it can't swallow the first of ours
+                    position += channel.write(ByteBuffer.wrap(new byte[] {'\n'}), position);
+                }
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Batch read(long position) throws IOException {
+        synchronized (monitor) {
+            try (FileChannel channel = open(); FileLock ignored = channel.lock(0, Long.MAX_VALUE, true)) {
+                long available = channel.size() - position;
+                if (available <= 0) return new Batch(List.of(), position);
+
+                // Grow the window until it holds at least one whole line
+                int size = (int) Math.min(available, MAX_READ_BYTES);
+                while (true) {
+                    ByteBuffer buffer = ByteBuffer.allocate(size);
+                    while (buffer.hasRemaining()) {
+                        if (channel.read(buffer, position + buffer.position()) < 0) break;
+                    }
+                    int end = lastNewline(buffer.array(), buffer.position());
+                    if (end >= 0) return new Batch(parse(buffer.array(), end), position + end + 1);
+                    if (size == available) return new Batch(List.of(), position); // Only a torn line is left
+                    size = (int) Math.min(available, (long) size * 2);
+                }
+            }
+        }
+    }
+
+    private FileChannel open() throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static boolean endsWithNewline(FileChannel channel, long size) throws IOException {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, size - 1);
+        return last.get(0) == '\n';
+    }
+
+    private static int lastNewline(byte[] bytes, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (bytes[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    private List<TaskChange> parse(byte[] bytes, int end) {
+        List<TaskChange> changes = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= end; i++) {
+            if (bytes[i] != '\n') continue;
+            if (i > start) {
+                try {
+                    changes.add(MAPPER.readValue(bytes, start, i - start, TaskChange.class));
+                } catch (IOException e) {
+                    // A torn line from a node that crashed mid-append; its node never heard the append succeed
+                    System.err.println("⚠️ Skipping unreadable line in task feed " + file + ": " + e.getMessage());
+                }
+            }
+            start = i + 1;
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,100 @@
+package com.sentinel.sentinel.cluster;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring assigning keys, usually target hosts, to nodes.
+ *
+ * <p>Each node is placed on the ring at {@code virtualNodes} points and owns the keys hashing
+ * between its points and the previous ones. When a node joins or leaves, only the keys next to its
+ * points move, roughly {@code 1 / nodes} of them, and every other key keeps its owner. Rings built
+ * from the same node ids are identical on every node.
+ */
+public final class HashRing {
+
+    private final Set<String> nodes;
+    /** Ring positions, ascending, and the node at each. */
+    private final long[] points;
+    private final String[] owners;
+
+    /**
+     * @param nodes ids of the live nodes
+     * @param virtualNodes points per node; more points spread keys more evenly
+     */
+    public HashRing(Collection<String> nodes, int virtualNodes) {
+        this.nodes = Set.copyOf(nodes);
+
+        // Sorted by position, then by node id, so every node breaks collisions the same way
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String node : this.nodes.stream().sorted().toList()) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.putIfAbsent(hash(node + "#" + i), node);
+            }
+        }
+        this.points = new long[ring.size()];
+        this.owners = new String[ring.size()];
+        int i = 0;
+        for (Map.Entry<Long, String> point : ring.entrySet()) {
+            points[i] = point.getKey();
+            owners[i++] = point.getValue();
+        }
+    }
+
+    /**
+     * @param key a target host, see {@link #hostOf(String)}
+     * @return the id of the node owning the key, or null when the ring is empty
+     */
+    public String owner(String key) {
+        if (points.length == 0) return null;
+
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) index = -index - 1;
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * @return the ids of the nodes on the ring
+     */
+    public Set<String> nodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the key a target is sharded by: its host, so each node keeps the per-host connection,
+     * rate limits and conditional-request state of the sites it polls.
+     *
+     * @param target the target URL
+     * @return the lower-cased host, or the target itself when it has none
+     */
+    public static String hostOf(String target) {
+        try {
+            String host = URI.create(target.strip()).getHost();
+            if (host != null) return host.toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException e) {
+            // Not a URI; shard by the whole target
+        }
+        return target;
+    }
+
+    /** 64-bit FNV-1a, finished with the MurmurHash3 mixer so nearby keys land far apart. */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
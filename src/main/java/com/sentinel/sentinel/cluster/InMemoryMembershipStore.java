@@ -0,0 +1,26 @@
+package com.sentinel.sentinel.cluster;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Membership shared by nodes running in one JVM, e.g. several observers in a test.
+ */
+public class InMemoryMembershipStore implements MembershipStore {
+
+    private final Map<String, Member> members = new HashMap<>();
+
+    @Override
+    public synchronized List<Member> renew(Member self) {
+        long now = System.currentTimeMillis();
+        members.values().removeIf(member -> !member.isAlive(now));
+        members.put(self.id(), self);
+        return List.copyOf(members.values());
+    }
+
+    @Override
+    public synchronized void leave(String nodeId) {
+        members.remove(nodeId);
+    }
+}
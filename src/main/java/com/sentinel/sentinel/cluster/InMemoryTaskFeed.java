@@ -0,0 +1,23 @@
+package com.sentinel.sentinel.cluster;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Task changes shared by nodes running in one JVM, e.g. several observers in a test.
+ */
+public class InMemoryTaskFeed implements TaskFeed {
+
+    private final List<TaskChange> changes = new ArrayList<>();
+
+    @Override
+    public synchronized void append(List<TaskChange> changes) {
+        this.changes.addAll(changes);
+    }
+
+    @Override
+    public synchronized Batch read(long position) {
+        int from = (int) Math.min(position, changes.size());
+        return new Batch(List.copyOf(changes.subList(from, changes.size())), changes.size());
+    }
+}
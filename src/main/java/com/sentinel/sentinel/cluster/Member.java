@@ -0,0 +1,19 @@
+package com.sentinel.sentinel.cluster;
+
+/**
+ * A Sentinel node as recorded in a {@link MembershipStore}.
+ *
+ * @param id the node's id, unique in the cluster
+ * @param address where operators can reach the node, e.g. {@code http://10.0.0.5:8080}, or null
+ * @param leaseExpiresAt epoch millis after which the node counts as gone unless it renews
+ */
+public record Member(String id, String address, long leaseExpiresAt) {
+
+    /**
+     * @param now the current epoch millis
+     * @return whether the node's lease is still valid
+     */
+    public boolean isAlive(long now) {
+        return leaseExpiresAt > now;
+    }
+}
@@ -0,0 +1,31 @@
+package com.sentinel.sentinel.cluster;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Shared record of which nodes are in the cluster, each for as long as its lease lasts.
+ *
+ * <p>Every operation must be atomic with respect to every other node using the same store, so all
+ * nodes agree on the membership and therefore on the {@link HashRing}. Members whose lease has
+ * expired are never returned, which is how crashed nodes leave.
+ */
+public interface MembershipStore {
+
+    /**
+     * Adds the node or extends its lease.
+     *
+     * @param self this node, with the new expiry of its lease
+     * @return every member whose lease hasn't expired, including {@code self}
+     * @throws IOException if the store can't be read or written
+     */
+    List<Member> renew(Member self) throws IOException;
+
+    /**
+     * Removes a node right away instead of waiting for its lease to expire.
+     *
+     * @param nodeId the node leaving
+     * @throws IOException if the store can't be read or written
+     */
+    void leave(String nodeId) throws IOException;
+}
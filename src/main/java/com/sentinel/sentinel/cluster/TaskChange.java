@@ -0,0 +1,27 @@
+package com.sentinel.sentinel.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A change to the task set, as shared through a {@link TaskFeed}.
+ *
+ * @param kind what happened to the task
+ * @param id the task's id
+ * @param task the task in its stored JSON form for {@link Kind#ADDED}, otherwise null
+ */
+public record TaskChange(Kind kind, String id, JsonNode task) {
+
+    public enum Kind { ADDED, COMPLETED, REMOVED }
+
+    public static TaskChange added(String id, JsonNode task) {
+        return new TaskChange(Kind.ADDED, id, task);
+    }
+
+    public static TaskChange completed(String id) {
+        return new TaskChange(Kind.COMPLETED, id, null);
+    }
+
+    public static TaskChange removed(String id) {
+        return new TaskChange(Kind.REMOVED, id, null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.sentinel.sentinel.cluster;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Shared log of the tasks registered, completed and removed on any node, so a task reaches the
+ * node that owns its target whichever node it was registered on.
+ *
+ * <p>Changes are kept in the order they were appended, and each node reads them from where it left
+ * off. Like {@link MembershipStore}, every operation must be atomic with respect to every other node
+ * using the same feed, so no node reads half an append.
+ */
+public interface TaskFeed {
+
+    /** Changes read from a feed, and the position to read from next. */
+    record Batch(List<TaskChange> changes, long next) {}
+
+    /**
+     * Appends changes after every change already in the feed.
+     *
+     * @param changes the changes, in order
+     * @throws IOException if the feed can't be written
+     */
+    void append(List<TaskChange> changes) throws IOException;
+
+    /**
+     * Reads changes appended since a position. A batch may stop short of the end of the feed; read
+     * again from its {@link Batch#next()} until a batch comes back empty.
+     *
+     * @param position where the previous read stopped, or 0 for the start of the feed
+     * @return the next changes, in order
+     * @throws IOException if the feed can't be read
+     */
+    Batch read(long position) throws IOException;
+}
@@ -0,0 +1,43 @@
+package com.sentinel.sentinel.condition;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A query compiled into a check that can be decided from page text alone, without a model.
+ *
+ * <p>Queries are compiled once, when a task is scheduled, by {@link #compile(String)}. Only queries
+ * that are fully understood compile; everything else is left to the task's matcher.
+ */
+public interface Condition {
+
+    /**
+     * @param sentences every sentence of the page
+     * @return whether the condition holds on the page
+     */
+    boolean test(List<String> sentences);
+
+    /**
+     * Compiles a query made of numeric thresholds and ranges ("price below $50", "between 10 and 20
+     * degrees"), optionally with a subject that must appear next to the number ("CSK scored more than
+     * 200 runs"), and of quoted keywords that must be present or absent ({@code mentions "sold out"},
+     * {@code no longer mentions "sold out"}). Parts may be joined with "and" or commas.
+     *
+     * @param query a natural-language query
+     * @return the compiled condition, or empty if any part of the query needs a model to decide
+     */
+    static Optional<Condition> compile(String query) {
+        return ConditionParser.parse(query);
+    }
+
+    /** Holds when every part holds. */
+    record AllOf(List<Condition> conditions) implements Condition {
+        @Override
+        public boolean test(List<String> sentences) {
+            for (Condition condition : conditions) {
+                if (!condition.test(sentences)) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.sentinel.sentinel.condition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles queries into {@link Condition}s. See {@link Condition#compile(String)} for what is
+ * understood.
+ */
+final class ConditionParser {
+
+    private static final Pattern QUOTED = Pattern.compile("\"([^\"]+)\"|(?<=^|\\s)'([^']+)'(?=$|[\\s,.;])");
+
+    /** Joins between clauses. Quoted phrases are replaced by placeholders before splitting. */
+    private static final Pattern SEPARATOR = Pattern.compile("\\s*(?:,\\s+|;|\\band\\b|\\bbut\\b)\\s*");
+
+    private static final Pattern BETWEEN = Pattern.compile("\\b(?:between|from)\\s+");
+    private static final Pattern RANGE_JOIN = Pattern.compile("\\s*(?:and|to|-)\\s*");
+
+    /** Longer phrases first, so "no more than" isn't read as "more than". */
+    private static final Pattern COMPARISON = Pattern.compile(
+            "(?:\\b(?<atLeast>no less than|not less than|at least|minimum of)"
+                    + "|\\b(?<atMost>no more than|not more than|at most|up to|maximum of)"
+                    + "|\\b(?<greater>more than|greater than|higher than|larger than|exceeds?|exceeding|above|over|beyond)"
+                    + "|\\b(?<less>less than|fewer than|lower than|smaller than|below|under)"
+                    + "|\\b(?<equal>exactly|equals?(?: to)?)"
+                    + "|(?<symbol>>=|<=|>|<|=))\\s*");
+
+    private static final String NEGATION = "(?:no longer|no more|never|not|does not|doesn't|do not|don't)";
+    private static final String VERB = "(?:mention|contain|include|say|show|list|display)s?";
+    private static final String PHRASE = "\"#(\\d+)\"";
+
+    private static final Pattern ABSENT = Pattern.compile(String.join("|",
+            NEGATION + "\\s+" + VERB + "\\s+" + PHRASE,
+            PHRASE + "\\s+(?:is|are)\\s+(?:no longer\\s+)?(?:gone|removed|absent|missing)",
+            PHRASE + "\\s+(?:disappears?|vanishes?)",
+            "without\\s+" + PHRASE));
+
+    private static final Pattern PRESENT = Pattern.compile(String.join("|",
+            VERB + "\\s+" + PHRASE,
+            PHRASE + "\\s+(?:appears?|(?:is|are)\\s+(?:mentioned|listed|shown|present|back))",
+            "^" + PHRASE + "$"));
+
+    private static final Pattern QUANTITY = Pattern.compile(Quantity.PATTERN);
+
+    private ConditionParser() {}
+
+    static Optional<Condition> parse(String query) {
+        String text = query.toLowerCase(Locale.ROOT)
+                .replace('“', '"').replace('”', '"')
+                .replace('‘', '\'').replace('’', '\'')
+                .strip();
+
+        // Keep quoted phrases intact through splitting
+        List<String> phrases = new ArrayList<>();
+        Matcher quoted = QUOTED.matcher(text);
+        StringBuilder protectedText = new StringBuilder();
+        while (quoted.find()) {
+            phrases.add(quoted.group(1) != null ? quoted.group(1) : quoted.group(2));
+            quoted.appendReplacement(protectedText, "\"#" + (phrases.size() - 1) + "\"");
+        }
+        quoted.appendTail(protectedText);
+
+        List<Condition> conditions = new ArrayList<>();
+        for (String segment : splitSegments(protectedText.toString())) {
+            Optional<Condition> condition = parseKeyword(segment, phrases).or(() -> parseNumeric(segment));
+            if (condition.isEmpty()) return Optional.empty();
+            conditions.add(condition.get());
+        }
+
+        if (conditions.isEmpty()) return Optional.empty();
+        return Optional.of(conditions.size() == 1 ? conditions.get(0) : new Condition.AllOf(List.copyOf(conditions)));
+    }
+
+    /** Splits on "and" and commas, except for the "and" of "between 10 and 20". */
+    private static List<String> splitSegments(String text) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        Matcher separator = SEPARATOR.matcher(text);
+        while (separator.find()) {
+            if (separator.group().strip().equals("and") && endsInRangeStart(text.substring(start, separator.start()))) {
+                continue;
+            }
+            addSegment(segments, text.substring(start, separator.start()));
+            start = separator.end();
+        }
+        addSegment(segments, text.substring(start));
+        return segments;
+    }
+
+    private static boolean endsInRangeStart(String segment) {
+        Matcher between = BETWEEN.matcher(segment);
+        int last = -1;
+        while (between.find()) last = between.end();
+        if (last < 0) return false;
+
+        Matcher low = QUANTITY.matcher(segment).region(last, segment.length());
+        return low.lookingAt() && low.end() == segment.length();
+    }
+
+    private static void addSegment(List<String> segments, String segment) {
+        segment = segment.strip();
+        if (!segment.isEmpty() && !Words.contentStems(segment).isEmpty() || segment.contains("\"#")) {
+            segments.add(segment);
+        }
+    }
+
+    private static Optional<Condition> parseKeyword(String segment, List<String> phrases) {
+        Matcher absent = ABSENT.matcher(segment);
+        if (absent.find()) return Optional.of(new KeywordCondition(phrases.get(phraseIndex(absent)), false));
+
+        Matcher present = PRESENT.matcher(segment);
+        if (present.find()) return Optional.of(new KeywordCondition(phrases.get(phraseIndex(present)), true));
+
+        return Optional.empty();
+    }
+
+    private static int phraseIndex(Matcher matcher) {
+        for (int group = 1; group <= matcher.groupCount(); group++) {
+            if (matcher.group(group) != null) return Integer.parseInt(matcher.group(group));
+        }
+        throw new IllegalStateException("No phrase in " + matcher.group());
+    }
+
+    private static Optional<Condition> parseNumeric(String segment) {
+        // A quoted phrase left over means the segment is about keywords we didn't understand
+        if (segment.contains("\"#")) return Optional.empty();
+
+        Optional<Condition> range = parseRange(segment);
+        if (range.isPresent()) return range;
+
+        Matcher comparison = COMPARISON.matcher(segment);
+        while (comparison.find()) {
+            Matcher quantity = QUANTITY.matcher(segment).region(comparison.end(), segment.length());
+            if (!quantity.lookingAt()) continue;
+
+            Quantity bound = Quantity.of(quantity);
+            String rest = segment.substring(0, comparison.start()) + " " + segment.substring(quantity.end());
+            return Optional.of(new NumericCondition(comparisonOf(comparison), bound.value(), bound.value(),
+                    bound.unit(), subjectOf(rest)));
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<Condition> parseRange(String segment) {
+        Matcher between = BETWEEN.matcher(segment);
+        while (between.find()) {
+            Matcher low = QUANTITY.matcher(segment).region(between.end(), segment.length());
+            if (!low.lookingAt()) continue;
+            Matcher join = RANGE_JOIN.matcher(segment).region(low.end(), segment.length());
+            if (!join.lookingAt()) continue;
+            Matcher high = QUANTITY.matcher(segment).region(join.end(), segment.length());
+            if (!high.lookingAt()) continue;
+
+            Quantity from = Quantity.of(low);
+            Quantity to = Quantity.of(high);
+            // "between $10 and 20" and "between 10 and 20 kg" share one unit
+            String unit = to.unit() != null ? to.unit() : from.unit();
+            String rest = segment.substring(0, between.start()) + " " + segment.substring(high.end());
+            return Optional.of(new NumericCondition(NumericCondition.Comparison.BETWEEN,
+                    Math.min(from.value(), to.value()), Math.max(from.value(), to.value()), unit, subjectOf(rest)));
+        }
+        return Optional.empty();
+    }
+
+    private static NumericCondition.Comparison comparisonOf(Matcher matcher) {
+        if (matcher.group("atLeast") != null) return NumericCondition.Comparison.AT_LEAST;
+        if (matcher.group("atMost") != null) return NumericCondition.Comparison.AT_MOST;
+        if (matcher.group("greater") != null) return NumericCondition.Comparison.GREATER;
+        if (matcher.group("less") != null) return NumericCondition.Comparison.LESS;
+        if (matcher.group("equal") != null) return NumericCondition.Comparison.EQUAL;
+        return switch (matcher.group("symbol")) {
+            case ">=" -> NumericCondition.Comparison.AT_LEAST;
+            case "<=" -> NumericCondition.Comparison.AT_MOST;
+            case ">" -> NumericCondition.Comparison.GREATER;
+            case "<" -> NumericCondition.Comparison.LESS;
+            default -> NumericCondition.Comparison.EQUAL;
+        };
+    }
+
+    private static Set<String> subjectOf(String rest) {
+        return Set.copyOf(Words.contentStems(rest));
+    }
+}
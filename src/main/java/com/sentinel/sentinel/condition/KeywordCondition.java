@@ -0,0 +1,29 @@
+package com.sentinel.sentinel.condition;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A quoted phrase that must appear on the page, or must not, ignoring case and spacing.
+ *
+ * @param phrase the phrase, lower-cased with single spaces
+ * @param present whether the phrase must appear (otherwise it must be absent)
+ */
+public record KeywordCondition(String phrase, boolean present) implements Condition {
+
+    public KeywordCondition {
+        phrase = normalize(phrase);
+    }
+
+    @Override
+    public boolean test(List<String> sentences) {
+        for (String sentence : sentences) {
+            if (normalize(sentence).contains(phrase)) return present;
+        }
+        return !present;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").strip();
+    }
+}
@@ -0,0 +1,64 @@
+package com.sentinel.sentinel.condition;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A threshold or range on a quantity, such as "more than 200 runs" or "between $10 and $20".
+ *
+ * <p>A sentence satisfies the condition when one of its quantities has a compatible unit and falls
+ * in range, and the sentence also mentions every subject term of the query ("CSK scored" in
+ * "CSK scored more than 200 runs"). Unlike comparing the first number of each sentence, this
+ * ignores dates, scores of other teams and prices in other currencies.
+ *
+ * @param comparison how quantities are compared to the bounds
+ * @param low the bound, or the lower bound of a range
+ * @param high the upper bound of a range, otherwise equal to {@code low}
+ * @param unit the unit quantities must carry, see {@link Quantity#unit()}, or null for any
+ * @param subject stemmed words that must appear in the same sentence
+ */
+public record NumericCondition(Comparison comparison, double low, double high, String unit, Set<String> subject)
+        implements Condition {
+
+    /** How a quantity is compared to the bounds. */
+    public enum Comparison {
+        GREATER, AT_LEAST, LESS, AT_MOST, EQUAL, BETWEEN;
+
+        boolean test(double value, double low, double high) {
+            return switch (this) {
+                case GREATER -> value > low;
+                case AT_LEAST -> value >= low;
+                case LESS -> value < low;
+                case AT_MOST -> value <= low;
+                case EQUAL -> value == low;
+                case BETWEEN -> value >= low && value <= high;
+            };
+        }
+    }
+
+    @Override
+    public boolean test(List<String> sentences) {
+        for (String sentence : sentences) {
+            if (test(sentence)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param sentence one sentence of page text
+     * @return whether the sentence states a quantity satisfying the condition
+     */
+    public boolean test(String sentence) {
+        boolean found = false;
+        for (Quantity quantity : Quantity.findAll(sentence)) {
+            if (unit != null && !unit.equals(quantity.unit())) continue;
+            // A bare "2019" is a year, unless the query itself is about years
+            if (unit == null && quantity.looksLikeYear() && !new Quantity(low, null, true).looksLikeYear()) continue;
+            if (comparison.test(quantity.value(), low, high)) {
+                found = true;
+                break;
+            }
+        }
+        return found && (subject.isEmpty() || Words.contentStems(sentence).containsAll(subject));
+    }
+}
@@ -0,0 +1,90 @@
+package com.sentinel.sentinel.condition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A number found in text, with its scale applied and its unit normalized.
+ *
+ * @param value the number, e.g. 2500000 for "2.5 million"
+ * @param unit a currency code ({@code usd}, {@code inr}, ...), {@code %}, a temperature scale, the
+ *             stemmed word following the number ({@code run} for "runs"), or null
+ * @param plain whether the number was written as a bare integer, which is how years look
+ */
+public record Quantity(double value, String unit, boolean plain) {
+
+    /** Matches a number, with an optional currency before it and a scale and unit after it. */
+    static final String PATTERN =
+            "(?:(?<currency>[$€£₹¥]|\\b(?:usd|eur|gbp|inr|rs|jpy)\\b)\\.?\\s*|(?<![\\p{L}\\d.,]))"
+                    + "(?<number>\\d+(?:,\\d{2,3})*(?:\\.\\d+)?)"
+                    + "(?:\\s*(?<scale>k|thousand|million|mn|billion|bn|lakhs?|crores?)\\b)?"
+                    + "(?:\\s*(?<unit>%|°\\s?[cf]\\b|(?!(?:and|or|to)\\b)\\p{L}+))?";
+
+    private static final Pattern QUANTITY = Pattern.compile(PATTERN);
+
+    private static final Map<String, String> CURRENCIES = Map.ofEntries(
+            Map.entry("$", "usd"), Map.entry("usd", "usd"), Map.entry("dollar", "usd"),
+            Map.entry("€", "eur"), Map.entry("eur", "eur"), Map.entry("euro", "eur"),
+            Map.entry("£", "gbp"), Map.entry("gbp", "gbp"), Map.entry("pound", "gbp"),
+            Map.entry("₹", "inr"), Map.entry("inr", "inr"), Map.entry("rs", "inr"),
+            Map.entry(Words.stem("rupee"), "inr"),
+            Map.entry("¥", "jpy"), Map.entry("jpy", "jpy"), Map.entry("yen", "jpy")
+    );
+
+    private static final Map<String, Double> SCALES = Map.ofEntries(
+            Map.entry("k", 1e3), Map.entry("thousand", 1e3),
+            Map.entry("million", 1e6), Map.entry("mn", 1e6),
+            Map.entry("billion", 1e9), Map.entry("bn", 1e9),
+            Map.entry("lakh", 1e5), Map.entry("lakhs", 1e5),
+            Map.entry("crore", 1e7), Map.entry("crores", 1e7)
+    );
+
+    /**
+     * @param text any text
+     * @return every quantity in the text, in order
+     */
+    public static List<Quantity> findAll(String text) {
+        List<Quantity> quantities = new ArrayList<>();
+        Matcher matcher = QUANTITY.matcher(text.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            quantities.add(of(matcher));
+        }
+        return quantities;
+    }
+
+    /**
+     * Builds a quantity from a match of {@link #PATTERN}.
+     */
+    static Quantity of(Matcher matcher) {
+        String number = matcher.group("number");
+        String scale = matcher.group("scale");
+        String currency = matcher.group("currency");
+        double value = Double.parseDouble(number.replace(",", ""));
+        if (scale != null) value *= SCALES.get(scale);
+
+        String unit = currency != null ? CURRENCIES.get(currency) : normalizeUnit(matcher.group("unit"));
+        boolean plain = currency == null && scale == null && number.chars().allMatch(Character::isDigit);
+        return new Quantity(value, unit, plain);
+    }
+
+    /**
+     * @return whether this looks like a year rather than an amount
+     */
+    boolean looksLikeYear() {
+        return plain && unit == null && value >= 1900 && value < 2100;
+    }
+
+    private static String normalizeUnit(String unit) {
+        if (unit == null) return null;
+        if (unit.equals("%") || unit.equals("percent")) return "%";
+        if (unit.startsWith("°")) return "°" + unit.charAt(unit.length() - 1);
+        if (Words.isStopWord(unit)) return null;
+
+        String stem = Words.stem(unit);
+        return CURRENCIES.getOrDefault(stem, stem);
+    }
+}
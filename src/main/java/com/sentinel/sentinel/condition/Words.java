@@ -0,0 +1,58 @@
+package com.sentinel.sentinel.condition;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Word-level helpers shared by the condition parser and its conditions.
+ */
+final class Words {
+
+    /**
+     * Words that don't name what a condition is about: function words, the filler common in task
+     * queries ("when the page says"), and words for the quantity itself ("when the price drops").
+     */
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "the", "and", "or", "of", "in", "on", "at", "to", "for", "by", "with", "from", "as",
+            "is", "are", "was", "were", "be", "been", "being", "has", "have", "had", "do", "does", "did",
+            "it", "its", "this", "that", "these", "those", "there", "their", "than", "then", "so",
+            "when", "if", "once", "whether", "will", "would", "should", "can", "could", "gets", "get",
+            "page", "site", "website", "says", "shows", "reports", "notify", "me", "i", "we", "us",
+            // What is measured, and how it moves, rather than what it belongs to
+            "price", "prices", "cost", "costs", "value", "amount", "number", "total", "count", "level", "rate",
+            "temperature", "goes", "go", "drops", "drop", "falls", "fall", "rises", "rise", "reaches", "reach",
+            "hits", "hit", "becomes", "become", "stays", "stay", "now", "still"
+    );
+
+    private Words() {}
+
+    static boolean isStopWord(String word) {
+        return STOP_WORDS.contains(word);
+    }
+
+    /**
+     * Strips common English suffixes so "scores", "scored" and "scoring" compare equal to "score".
+     * Deliberately crude: it only has to agree with itself.
+     */
+    static String stem(String word) {
+        if (word.length() > 4 && word.endsWith("ing")) return word.substring(0, word.length() - 3);
+        if (word.length() > 3 && word.endsWith("ed")) return word.substring(0, word.length() - 2);
+        if (word.length() > 3 && word.endsWith("es")) return word.substring(0, word.length() - 2);
+        if (word.length() > 2 && word.endsWith("s") && !word.endsWith("ss")) return word.substring(0, word.length() - 1);
+        if (word.length() > 3 && word.endsWith("e")) return word.substring(0, word.length() - 1);
+        return word;
+    }
+
+    /**
+     * @return the stems of every word of the text that isn't a stop word, in order
+     */
+    static Set<String> contentStems(String text) {
+        Set<String> stems = new LinkedHashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty() || isStopWord(word)) continue;
+            stems.add(stem(word));
+        }
+        return stems;
+    }
+}
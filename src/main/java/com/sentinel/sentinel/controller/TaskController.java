@@ -2,25 +2,270 @@ package com.sentinel.sentinel.controller;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RestController;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sentinel.sentinel.Task;
+import com.sentinel.sentinel.event.TaskEvent;
+import com.sentinel.sentinel.event.TaskEventListener;
+import com.sentinel.sentinel.matcher.Matcher;
+import com.sentinel.sentinel.service.TaskObserverService;
+import com.sentinel.sentinel.store.TaskFilter;
+import com.sentinel.sentinel.store.TaskPage;
+import com.sentinel.sentinel.store.TaskStore;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @RestController
 public class TaskController {
 
-    private final String FILE_NAME = ".task_log.json";
+    /** Page size when the client doesn't ask for one. */
+    private static final int DEFAULT_LIMIT = 100;
 
+    /** Largest page a client may ask for. */
+    private static final int MAX_LIMIT = 1000;
+
+    /** How many tasks the NDJSON stream reads from the store at a time. */
+    private static final int STREAM_CHUNK = 500;
+
+    /** Events queued for one SSE client before it is considered gone. */
+    private static final int MAX_PENDING_EVENTS = 1000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TaskObserverService observer;
+    private final TaskStore store;
+    private final AtomicLong eventIds = new AtomicLong();
+
+    /** One task of a {@code POST /api/tasks/batch} request. Interval, matcher, top-k and selector are optional. */
+    public record NewTask(String target, String query, Integer intervalSeconds, String matcher, Integer topK,
+                          String selector) {}
+
+    public TaskController(TaskObserverService observer, TaskStore store) {
+        this.observer = observer;
+        this.store = store;
+    }
+
+    /**
+     * Lists tasks from memory, one page at a time. Responses carry an ETag made of the store's epoch
+     * and version, so a client polling an unchanged list gets a 304 with no body, and a tag from
+     * before a restart never matches. {@code If-None-Match} may list several tags, weak ones or
+     * {@code *}.
+     *
+     * @param complete only tasks with this completion state
+     * @param target only tasks observing exactly this URL
+     * @param query only tasks whose query contains this text, ignoring case
+     * @param cursor the {@code nextCursor} of the previous page
+     * @param limit page size, at most {@value #MAX_LIMIT}
+     * @return {@code {"tasks": [...], "nextCursor": ...}}, where {@code nextCursor} is null on the last page
+     */
     @GetMapping("/api/tasks")
-    public JsonNode getTasks() {
+    public ResponseEntity<JsonNode> getTasks(@RequestParam(name = "complete", required = false) Boolean complete,
+                                             @RequestParam(name = "target", required = false) String target,
+                                             @RequestParam(name = "query", required = false) String query,
+                                             @RequestParam(name = "cursor", required = false) String cursor,
+                                             @RequestParam(name = "limit", defaultValue = "" + DEFAULT_LIMIT) int limit,
+                                             @RequestHeader(name = "If-None-Match", required = false) String ifNoneMatch) {
+        String current = eTag(store.version());
+        if (matches(ifNoneMatch, current)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current).build();
+        }
+
+        TaskPage page;
+        try {
+            page = store.list(new TaskFilter(complete, target, query), cursor, Math.max(1, Math.min(limit, MAX_LIMIT)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ObjectNode body = mapper.createObjectNode();
+        ArrayNode taskList = body.putArray("tasks");
+        for (Task task : page.tasks()) {
+            taskList.add(task.toJson());
+        }
+        body.put("nextCursor", page.nextCursor());
+        return ResponseEntity.ok().eTag(eTag(page.version())).body(body);
+    }
+
+    /**
+     * Streams every matching task as newline-delimited JSON, reading the store in chunks so large
+     * task sets are never held in memory or serialized in one piece.
+     */
+    @GetMapping(value = "/api/tasks/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTasks(@RequestParam(name = "complete", required = false) Boolean complete,
+                                                             @RequestParam(name = "target", required = false) String target,
+                                                             @RequestParam(name = "query", required = false) String query) {
+        TaskFilter filter = new TaskFilter(complete, target, query);
+        StreamingResponseBody body = out -> {
+            String cursor = null;
+            do {
+                TaskPage page = store.list(filter, cursor, STREAM_CHUNK);
+                for (Task task : page.tasks()) {
+                    out.write(mapper.writeValueAsBytes(task.toJson()));
+                    out.write('\n');
+                }
+                out.flush();
+                cursor = page.nextCursor();
+            } while (cursor != null);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Pushes task events as Server-Sent Events while the client stays connected. Each event is
+     * named after its type ({@code checked}, {@code completed} or {@code failed}) and carries the
+     * event as JSON.
+     *
+     * <p>Events are written by a thread of the client's own, so a slow connection never holds up
+     * the check that published them. A client more than {@value #MAX_PENDING_EVENTS} events behind
+     * is disconnected.
+     */
+    @GetMapping(value = "/api/tasks/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents() {
+        SseEmitter emitter = new SseEmitter(0L); // No timeout; ends when the client disconnects
+        ThreadPoolExecutor sender = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_PENDING_EVENTS), runnable -> {
+                    Thread thread = new Thread(runnable, "sentinel-sse");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        TaskEventListener listener = new TaskEventListener() {
+            @Override
+            public void onEvent(TaskEvent event) {
+                try {
+                    sender.execute(() -> {
+                        if (!send(emitter, event)) close(this, sender);
+                    });
+                } catch (RejectedExecutionException e) {
+                    // Too far behind, or already gone
+                    if (!sender.isShutdown()) emitter.complete();
+                    close(this, sender);
+                }
+            }
+        };
+
+        observer.getEvents().subscribe(listener);
+        emitter.onCompletion(() -> close(listener, sender));
+        emitter.onTimeout(() -> close(listener, sender));
+        emitter.onError(e -> close(listener, sender));
+        return emitter;
+    }
+
+    /**
+     * @return false if the client went away and should get no more events
+     */
+    private boolean send(SseEmitter emitter, TaskEvent event) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            File file = new File(FILE_NAME);
-            return mapper.readTree(file).get("taskList");
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(eventIds.incrementAndGet()))
+                    .name(event.type().name().toLowerCase(Locale.ROOT))
+                    .data(event, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            return false;
         }
     }
+
+    private void close(TaskEventListener listener, ExecutorService sender) {
+        observer.getEvents().unsubscribe(listener);
+        sender.shutdownNow();
+    }
+
+    /**
+     * Registers many tasks with a single write and starts observing them right away. Duplicates of
+     * stored tasks, and of earlier tasks in the request, are skipped. The whole request is rejected
+     * with a 400 if any task lacks a target or query, names an engine other than {@code nli} or
+     * {@code java}, has a negative interval or top-k, or has an invalid selector.
+     *
+     * @return the tasks that were added, with their ids
+     */
+    @PostMapping("/api/tasks/batch")
+    public ResponseEntity<JsonNode> registerTasks(@RequestBody List<NewTask> body) {
+        List<Task> tasks = new ArrayList<>(body.size());
+        for (NewTask request : body) {
+            if (request.target() == null || request.target().isBlank()
+                    || request.query() == null || request.query().isBlank()
+                    || request.matcher() != null && !Matcher.ENGINES.contains(request.matcher())
+                    || request.intervalSeconds() != null && request.intervalSeconds() < 0
+                    || request.topK() != null && request.topK() < 0) {
+                return ResponseEntity.badRequest().build();
+            }
+            Task task = new Task(request.target(), request.query());
+            if (request.intervalSeconds() != null) task.setIntervalSeconds(request.intervalSeconds());
+            task.setMatcher(request.matcher());
+            if (request.topK() != null) task.setTopK(request.topK());
+            try {
+                task.setSelector(request.selector());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            tasks.add(task);
+        }
+
+        ArrayNode added = mapper.createArrayNode();
+        for (Task task : observer.registerAll(tasks)) {
+            added.add(task.toJson());
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(added);
+    }
+
+    /**
+     * Stops observing and deletes many tasks with a single write.
+     *
+     * @param ids the ids of the tasks to delete
+     * @return {@code {"removed": n}}
+     */
+    @PostMapping("/api/tasks/batch/delete")
+    public ResponseEntity<JsonNode> deleteTasks(@RequestBody List<String> ids) {
+        ObjectNode body = mapper.createObjectNode();
+        body.put("removed", observer.unregisterAll(ids));
+        return ResponseEntity.ok(body);
+    }
+
+    @DeleteMapping("/api/tasks/{id}")
+    public ResponseEntity<Void> deleteTask(@PathVariable("id") String id) {
+        return observer.unregister(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/api/tasks/{id}/pause")
+    public ResponseEntity<Void> pauseTask(@PathVariable("id") String id) {
+        return observer.pause(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/api/tasks/{id}/resume")
+    public ResponseEntity<Void> resumeTask(@PathVariable("id") String id) {
+        return observer.resume(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Whether {@code If-None-Match} lists the current tag or is {@code *}. Tags are compared weakly,
+     * as for any GET, so a {@code W/} prefix added by a proxy still matches.
+     */
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.strip();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(eTag)) return true;
+        }
+        return false;
+    }
+
+    private String eTag(long version) {
+        return "\"" + store.epoch() + "-" + version + "\"";
+    }
 }
@@ -0,0 +1,41 @@
+package com.sentinel.sentinel.event;
+
+import com.sentinel.sentinel.Task;
+
+/**
+ * Something that happened to an observed task.
+ *
+ * @param type what happened
+ * @param taskId the task's id
+ * @param target the observed URL
+ * @param query the task's query
+ * @param matched whether the query held on the page; false for {@link Type#FAILED}
+ * @param timestamp when it happened, in epoch milliseconds
+ */
+public record TaskEvent(Type type, String taskId, String target, String query, boolean matched, long timestamp) {
+
+    public enum Type {
+        /** The task was evaluated against a fresh copy of its page. */
+        CHECKED,
+        /** The task's query matched and the task is now complete. */
+        COMPLETED,
+        /** The page could not be fetched or the matcher failed; the task will be retried. */
+        FAILED
+    }
+
+    public static TaskEvent checked(Task task, boolean matched) {
+        return of(Type.CHECKED, task, matched);
+    }
+
+    public static TaskEvent completed(Task task) {
+        return of(Type.COMPLETED, task, true);
+    }
+
+    public static TaskEvent failed(Task task) {
+        return of(Type.FAILED, task, false);
+    }
+
+    private static TaskEvent of(Type type, Task task, boolean matched) {
+        return new TaskEvent(type, task.getId(), task.getTarget(), task.getQuery(), matched, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,53 @@
+package com.sentinel.sentinel.event;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Publishes task check results and completions to subscribed listeners as they happen, so clients
+ * learn about a completion as soon as the check finds it instead of on their next poll.
+ *
+ * <p>Listeners run synchronously in subscription order. A listener that throws is logged and does
+ * not prevent delivery to the others.
+ */
+public class TaskEventBus {
+
+    private final List<TaskEventListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param listener receives every event published from now on
+     */
+    public void subscribe(TaskEventListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener a listener previously passed to {@link #subscribe}
+     */
+    public void unsubscribe(TaskEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Delivers an event to every subscribed listener.
+     *
+     * @param event the event to deliver
+     */
+    public void publish(TaskEvent event) {
+        for (TaskEventListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (Exception e) {
+                System.err.println("⚠️ Task event listener failed on " + event.type() + " for " + event.taskId());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @return the number of subscribed listeners
+     */
+    public int listenerCount() {
+        return listeners.size();
+    }
+}
@@ -0,0 +1,14 @@
+package com.sentinel.sentinel.event;
+
+/**
+ * Receives {@link TaskEvent}s. Called on the thread that ran the check, so implementations should
+ * return quickly and hand slow work off elsewhere.
+ */
+@FunctionalInterface
+public interface TaskEventListener {
+
+    /**
+     * @param event the event that occurred
+     */
+    void onEvent(TaskEvent event);
+}
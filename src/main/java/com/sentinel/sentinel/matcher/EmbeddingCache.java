@@ -0,0 +1,60 @@
+package com.sentinel.sentinel.matcher;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of bi-encoder embeddings keyed by (text key, model id).
+ *
+ * <p>Queries are embedded once when their task is observed, and sentences once per distinct
+ * normalized hash, so the per-check cost of the top-k prefilter is a few dot products. Embeddings
+ * only change with the model, so entries don't expire; they are evicted least recently used once
+ * {@code maxSize} is reached.
+ */
+public class EmbeddingCache {
+
+    private record Key(String text, String model) {}
+
+    private final int maxSize;
+    private final Map<Key, float[]> entries;
+
+    /**
+     * @param maxSize maximum number of embeddings kept
+     */
+    public EmbeddingCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, float[]> eldest) {
+                return size() > EmbeddingCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param text a query, or a sentence hash from {@link Sentences#hash(String)}
+     * @param model id of the embedding model
+     * @return the cached unit-length embedding, or null
+     */
+    public synchronized float[] get(String text, String model) {
+        return entries.get(new Key(text, model));
+    }
+
+    /**
+     * Stores a freshly computed embedding.
+     *
+     * @param text a query, or a sentence hash from {@link Sentences#hash(String)}
+     * @param model id of the embedding model
+     * @param embedding the unit-length embedding
+     */
+    public synchronized void put(String text, String model, float[] embedding) {
+        entries.put(new Key(text, model), embedding);
+    }
+
+    /**
+     * @return the number of cached embeddings
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,92 @@
+package com.sentinel.sentinel.matcher;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of entailment scores keyed by (normalized sentence hash, query, model id).
+ *
+ * <p>Navigation, footers and cookie banners repeat on every poll and across pages, so most
+ * sentence/query pairs have been scored before. The cache lives on the Java side, so it survives
+ * matcher restarts and is shared by every task with the same query. Entries are evicted least
+ * recently used once {@code maxSize} is reached, and expire {@code ttl} after being scored.
+ *
+ * <p>Scores are cached rather than verdicts, so a task is always judged against the threshold in
+ * force when it is checked.
+ */
+public class EntailmentCache {
+
+    private record Key(String sentenceHash, String query, String model) {}
+
+    private record Score(double score, long expiresAt) {}
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Map<Key, Score> entries;
+
+    /**
+     * @param maxSize maximum number of scores kept
+     * @param ttl how long a score stays valid after it was computed
+     */
+    public EntailmentCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    /**
+     * @param maxSize maximum number of scores kept
+     * @param ttl how long a score stays valid after it was computed
+     * @param clock source of {@link System#nanoTime()}-style timestamps
+     */
+    EntailmentCache(int maxSize, Duration ttl, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Score> eldest) {
+                return size() > EntailmentCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param sentenceHash hash of the sentence, from {@link Sentences#hash(String)}
+     * @param query the task's query
+     * @param model id of the model that produced the score
+     * @return the cached entailment probability, if present and not expired
+     */
+    public synchronized OptionalDouble get(String sentenceHash, String query, String model) {
+        Key key = new Key(sentenceHash, query, model);
+        Score cached = entries.get(key);
+        if (cached == null) return OptionalDouble.empty();
+
+        if (clock.getAsLong() - cached.expiresAt() > 0) {
+            entries.remove(key);
+            return OptionalDouble.empty();
+        }
+        return OptionalDouble.of(cached.score());
+    }
+
+    /**
+     * Stores a freshly computed entailment probability.
+     *
+     * @param sentenceHash hash of the sentence, from {@link Sentences#hash(String)}
+     * @param query the task's query
+     * @param model id of the model that produced the score
+     * @param score the entailment probability
+     */
+    public synchronized void put(String sentenceHash, String query, String model, double score) {
+        entries.put(new Key(sentenceHash, query, model), new Score(score, clock.getAsLong() + ttlNanos));
+    }
+
+    /**
+     * @return the number of cached scores, including expired ones not yet evicted
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,74 @@
+package com.sentinel.sentinel.matcher;
+
+import com.sentinel.sentinel.Task;
+import com.sentinel.sentinel.condition.Condition;
+import org.simmetrics.StringMetric;
+import org.simmetrics.metrics.StringMetrics;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * In-process matcher that needs neither the Python sidecar nor a model.
+ *
+ * <p>Tasks whose query compiled to a {@link Condition} ("more than 200 runs") are decided by it; the
+ * condition is the one the caller compiled when it started observing the task, so queries are
+ * never parsed again per check. Every other query matches when some sentence of the page is at least
+ * {@code similarityThreshold} similar to it by simmetrics' cosine similarity over lower-cased words.
+ * This is far cheaper than entailment but only catches paraphrases that share vocabulary.
+ */
+public class JavaMatcher implements Matcher {
+
+    /** Identifier of this matcher. */
+    public static final String ID = "java";
+
+    private final StringMetric similarity = StringMetrics.cosineSimilarity();
+    private final double similarityThreshold;
+    private final Function<String, Condition> conditions;
+
+    /**
+     * @param similarityThreshold minimum cosine similarity between query and sentence, from 0 to 1
+     * @param conditions the compiled condition of a task by id, or null when its query has none
+     */
+    public JavaMatcher(double similarityThreshold, Function<String, Condition> conditions) {
+        this.similarityThreshold = similarityThreshold;
+        this.conditions = conditions;
+    }
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Boolean>> match(String url, List<String> sentences, List<Task> tasks) {
+        Map<String, Boolean> results = new HashMap<>();
+        for (Task task : tasks) {
+            results.put(task.getId(), matches(sentences, task));
+        }
+        return CompletableFuture.completedFuture(results);
+    }
+
+    private boolean matches(List<String> sentences, Task task) {
+        Condition condition = conditions.apply(task.getId());
+        if (condition != null) {
+            return condition.test(sentences);
+        }
+
+        String normalizedQuery = normalize(task.getQuery());
+        for (String sentence : sentences) {
+            if (similarity.compare(normalizedQuery, normalize(sentence)) >= similarityThreshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").strip();
+    }
+}
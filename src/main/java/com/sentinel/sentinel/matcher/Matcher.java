@@ -0,0 +1,36 @@
+package com.sentinel.sentinel.matcher;
+
+import com.sentinel.sentinel.Task;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Decides whether tasks' queries hold on a fetched page.
+ *
+ * <p>Implementations are selected per task through the {@code matcher} field of {@link Task},
+ * falling back to the globally configured engine ({@code sentinel.matcher.engine}).
+ */
+public interface Matcher {
+
+    /** Identifiers of the built-in engines, the only values a task's {@code matcher} may take besides null. */
+    List<String> ENGINES = List.of(NliMatcher.ID, JavaMatcher.ID);
+
+    /**
+     * @return the identifier tasks use to select this matcher, e.g. {@code "nli"} or {@code "java"}
+     */
+    String id();
+
+    /**
+     * Evaluates every given task against sentences of one page. A task matches when any single
+     * sentence satisfies its query, so callers may pass only the sentences that changed since the
+     * task was last evaluated.
+     *
+     * @param url the observed page
+     * @param sentences the sentences to evaluate, as produced by {@link Sentences.Segmenter}
+     * @param tasks the tasks watching the page
+     * @return a future completing with verdicts keyed by task id
+     */
+    CompletableFuture<Map<String, Boolean>> match(String url, List<String> sentences, List<Task> tasks);
+}
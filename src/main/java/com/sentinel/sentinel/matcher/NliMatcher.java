@@ -0,0 +1,269 @@
+package com.sentinel.sentinel.matcher;
+
+import com.sentinel.sentinel.SentinelMetrics;
+import com.sentinel.sentinel.Task;
+import com.sentinel.sentinel.service.MatcherClient.BatchQuery;
+import com.sentinel.sentinel.service.MatcherClient.BatchResult;
+import com.sentinel.sentinel.service.PythonProcessManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * Matches through the pool of Python sidecar workers, which run {@code roberta-large-mnli} entailment.
+ *
+ * <p>Scores returned by the sidecar are kept in an {@link EntailmentCache}. Before each call the
+ * cache is consulted per sentence and query: a cached score above the threshold decides the task
+ * without the sidecar, and only sentences without a cached score are sent for inference.
+ *
+ * <p>On pages with more sentences than a task's top-k, sentences are first ranked by the cosine
+ * similarity of their bi-encoder embeddings to the query's, and only the k closest are considered
+ * for entailment. Query embeddings are computed when tasks are observed and sentence embeddings
+ * once per distinct sentence; both are kept in an {@link EmbeddingCache}. When embeddings can't be
+ * computed, every sentence is scored as before.
+ */
+public class NliMatcher implements Matcher {
+
+    /** Identifier of this matcher. */
+    public static final String ID = "nli";
+
+    private final PythonProcessManager workers;
+    private final EntailmentCache cache;
+    private final EmbeddingCache embeddings;
+    private final double threshold;
+    private final int topK;
+    private final SentinelMetrics metrics = SentinelMetrics.global();
+
+    /** Model id reported by the sidecar; cache lookups only start once it is known. */
+    private volatile String model;
+
+    /** Embedding model id reported by the sidecar; embedding lookups only start once it is known. */
+    private volatile String embedModel;
+
+    /**
+     * @param workers the started pool of Python sidecar workers
+     * @param cache score cache, shared across matcher restarts
+     * @param embeddings embedding cache, shared across matcher restarts
+     * @param threshold entailment probability a sentence must exceed to match
+     * @param topK sentences scored per task that doesn't choose, or 0 to score every sentence
+     */
+    public NliMatcher(PythonProcessManager workers, EntailmentCache cache, EmbeddingCache embeddings,
+                      double threshold, int topK) {
+        this.workers = workers;
+        this.cache = cache;
+        this.embeddings = embeddings;
+        this.threshold = threshold;
+        this.topK = topK;
+    }
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    /**
+     * Embeds queries ahead of their first check, so checks only embed new sentences.
+     *
+     * @param queries the queries of newly observed tasks
+     * @return a future completing once the embeddings are cached; failures are logged, not raised
+     */
+    public CompletableFuture<Void> embedQueries(Collection<String> queries) {
+        Map<String, String> texts = new LinkedHashMap<>();
+        queries.forEach(query -> texts.put(query, query));
+        return embeddingsOf(texts)
+                .<Void>thenApply(vectors -> null)
+                .exceptionally(e -> {
+                    System.err.println("⚠️ Could not embed queries: " + e.getMessage());
+                    return null;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Boolean>> match(String url, List<String> sentences, List<Task> tasks) {
+        List<String> hashes = sentences.stream().map(Sentences::hash).toList();
+        return candidates(sentences, hashes, tasks)
+                .thenCompose(candidates -> score(url, sentences, hashes, tasks, candidates));
+    }
+
+    /**
+     * Ranks sentences by embedding similarity for every task whose top-k is smaller than the page.
+     *
+     * @return sentence indices to consider, in page order, keyed by task id; tasks without an entry
+     *         consider every sentence
+     */
+    private CompletableFuture<Map<String, List<Integer>>> candidates(List<String> sentences, List<String> hashes,
+                                                                     List<Task> tasks) {
+        List<Task> ranked = tasks.stream().filter(task -> topKOf(task) < sentences.size()).toList();
+        if (ranked.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+
+        Map<String, String> texts = new LinkedHashMap<>();
+        for (int i = 0; i < sentences.size(); i++) {
+            texts.putIfAbsent(hashes.get(i), sentences.get(i));
+        }
+        ranked.forEach(task -> texts.putIfAbsent(task.getQuery(), task.getQuery()));
+
+        return embeddingsOf(texts)
+                .thenApply(vectors -> {
+                    float[][] sentenceVectors = hashes.stream().map(vectors::get).toArray(float[][]::new);
+                    Map<String, List<Integer>> candidates = new HashMap<>();
+                    for (Task task : ranked) {
+                        candidates.put(task.getId(), nearest(vectors.get(task.getQuery()), sentenceVectors, topKOf(task)));
+                    }
+                    return candidates;
+                })
+                .exceptionally(e -> {
+                    System.err.println("⚠️ Embedding prefilter unavailable, scoring every sentence: " + e.getMessage());
+                    return Map.of();
+                });
+    }
+
+    /**
+     * Looks up embeddings in the cache and computes the missing ones in one sidecar call.
+     *
+     * @param texts texts to embed, keyed by cache key (the query, or the sentence hash)
+     * @return a future completing with an embedding per key
+     */
+    private CompletableFuture<Map<String, float[]>> embeddingsOf(Map<String, String> texts) {
+        String knownModel = embedModel;
+        Map<String, float[]> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String key : texts.keySet()) {
+            float[] cached = knownModel == null ? null : embeddings.get(key, knownModel);
+            if (cached != null) {
+                found.put(key, cached);
+            } else {
+                missing.add(key);
+            }
+        }
+        if (missing.isEmpty()) return CompletableFuture.completedFuture(found);
+
+        List<String> batch = missing.stream().map(texts::get).toList();
+        return workers.call(client -> client.embed(batch))
+                .thenApply(response -> {
+                    if (response.embeddings() == null || response.embeddings().size() != missing.size()) {
+                        throw new IllegalStateException("Matcher returned " + (response.embeddings() == null ? 0
+                                : response.embeddings().size()) + " embeddings for " + missing.size() + " texts");
+                    }
+                    if (response.model() != null) embedModel = response.model();
+
+                    for (int i = 0; i < missing.size(); i++) {
+                        float[] embedding = response.embeddings().get(i);
+                        found.put(missing.get(i), embedding);
+                        if (response.model() != null) embeddings.put(missing.get(i), response.model(), embedding);
+                    }
+                    return found;
+                });
+    }
+
+    /**
+     * @return indices of the k sentences most similar to the query, in page order
+     */
+    private static List<Integer> nearest(float[] query, float[][] sentences, int k) {
+        double[] similarity = new double[sentences.length];
+        for (int i = 0; i < sentences.length; i++) {
+            similarity[i] = dot(query, sentences[i]);
+        }
+        return IntStream.range(0, sentences.length).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> similarity[i]).reversed())
+                .limit(k)
+                .sorted()
+                .toList();
+    }
+
+    /** Cosine similarity, as the sidecar returns unit-length embeddings. */
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0, n = Math.min(a.length, b.length); i < n; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @return how many sentences the task's prefilter keeps; unbounded when the prefilter is off
+     */
+    private int topKOf(Task task) {
+        int k = task.getTopK() > 0 ? task.getTopK() : topK;
+        return k > 0 ? k : Integer.MAX_VALUE;
+    }
+
+    private CompletableFuture<Map<String, Boolean>> score(String url, List<String> sentences, List<String> hashes,
+                                                          List<Task> tasks, Map<String, List<Integer>> candidates) {
+        String knownModel = model;
+
+        Map<String, Boolean> results = new HashMap<>();
+        Map<String, BatchQuery> queries = new HashMap<>();
+        int hits = 0;
+        int misses = 0;
+        int kept = 0;
+        int pruned = 0;
+        for (Task task : tasks) {
+            List<Integer> indices = candidates.get(task.getId());
+            if (indices == null) {
+                indices = IntStream.range(0, sentences.size()).boxed().toList();
+            } else {
+                kept += indices.size();
+                pruned += sentences.size() - indices.size();
+            }
+
+            boolean matched = false;
+            List<Integer> uncached = new ArrayList<>();
+            for (int n = 0; n < indices.size() && !matched; n++) {
+                int i = indices.get(n);
+                OptionalDouble score = knownModel == null
+                        ? OptionalDouble.empty()
+                        : cache.get(hashes.get(i), task.getQuery(), knownModel);
+                if (score.isEmpty()) {
+                    uncached.add(i);
+                    misses++;
+                } else {
+                    matched = score.getAsDouble() > threshold;
+                    hits++;
+                }
+            }
+
+            if (matched || uncached.isEmpty()) {
+                results.put(task.getId(), matched);
+            } else {
+                queries.put(task.getId(), new BatchQuery(task.getId(), task.getQuery(), uncached));
+            }
+        }
+        metrics.countCacheLookups(hits, misses);
+        metrics.countPrefilter(kept, pruned);
+
+        if (queries.isEmpty()) return CompletableFuture.completedFuture(results);
+
+        List<BatchQuery> batch = List.copyOf(queries.values());
+        return workers.call(client -> client.scoreSentences(url, sentences, batch, threshold))
+                .thenApply(response -> {
+                    if (response.model() != null) model = response.model();
+
+                    for (BatchResult result : response.results()) {
+                        results.put(result.id(), result.matched());
+
+                        BatchQuery query = queries.get(result.id());
+                        if (query == null || query.sentences() == null || response.model() == null) continue;
+                        List<Double> scores = result.scores();
+                        if (scores == null && !result.matched()) {
+                            // Decided without per-sentence scores; still, none of these sentences
+                            // matched, so cache that rather than re-send them on every check
+                            scores = Collections.nCopies(query.sentences().size(), 0.0);
+                        }
+                        if (scores == null || scores.size() != query.sentences().size()) continue;
+                        for (int k = 0; k < scores.size(); k++) {
+                            cache.put(hashes.get(query.sentences().get(k)), query.query(), response.model(), scores.get(k));
+                        }
+                    }
+                    return results;
+                });
+    }
+}
@@ -0,0 +1,89 @@
+package com.sentinel.sentinel.matcher;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sentence segmentation shared by the Java matchers. Uses the same rule as the Python matcher:
+ * split after {@code .}, {@code !} or {@code ?} when followed by whitespace and an upper-case letter.
+ */
+public final class Sentences {
+
+    private static final Pattern BOUNDARY = Pattern.compile("(?<=[.!?])\\s+(?=[A-Z])");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private Sentences() {}
+
+    /**
+     * Hashes a sentence with runs of whitespace collapsed, so re-flowed markup hashes the same.
+     *
+     * @param sentence a sentence of page text
+     * @return the hex SHA-256 of the normalized sentence
+     */
+    public static String hash(String sentence) {
+        String normalized = WHITESPACE.matcher(sentence.strip()).replaceAll(" ");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Splits text into sentences as it arrives, e.g. while a page is still being parsed. Runs of
+     * whitespace are collapsed, and feeding a text in any number of pieces yields the same sentences
+     * as feeding it whole. Only the sentence in progress is buffered.
+     */
+    public static final class Segmenter {
+
+        private final Consumer<String> sink;
+        private final StringBuilder pending = new StringBuilder();
+
+        /**
+         * @param sink receives each complete sentence, in order
+         */
+        public Segmenter(Consumer<String> sink) {
+            this.sink = sink;
+        }
+
+        /**
+         * @param text the next piece of text; pieces are joined as they are, so callers add the
+         *             whitespace between words of different pieces
+         */
+        public void append(CharSequence text) {
+            int scanFrom = Math.max(0, pending.length() - 1);
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    if (!pending.isEmpty() && pending.charAt(pending.length() - 1) != ' ') pending.append(' ');
+                } else {
+                    pending.append(c);
+                }
+            }
+
+            Matcher boundary = BOUNDARY.matcher(pending).useTransparentBounds(true);
+            boundary.region(scanFrom, pending.length());
+            int start = 0;
+            while (boundary.find()) {
+                sink.accept(pending.substring(start, boundary.start()));
+                start = boundary.end();
+            }
+            pending.delete(0, start);
+        }
+
+        /**
+         * Emits the last sentence, if any. The segmenter can't be used afterwards.
+         */
+        public void finish() {
+            String last = pending.toString().strip();
+            if (!last.isEmpty()) sink.accept(last);
+            pending.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.sentinel.sentinel.service;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs target checks off the scheduler thread.
+ *
+ * <p>The scheduler's single timer thread only decides when a check is due; the check itself, which
+ * blocks on the page fetch and on inference, runs here. On Java 21+ each check gets its own virtual
+ * thread, so blocking I/O no longer caps how many targets can be watched. Older runtimes fall back
+ * to a cached pool of platform threads.
+ *
+ * <p>Concurrency is bounded by a global limit and a per-host limit. A target whose previous check is
+ * still running is skipped rather than queued twice.
+ */
+public class CheckExecutor {
+
+    private final ExecutorService workers;
+    private final Semaphore globalPermits;
+    private final int perHostLimit;
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * @param maxConcurrentChecks how many checks may run at once across all targets
+     * @param maxConcurrentChecksPerHost how many checks may run at once against the same host
+     * @param virtualThreads whether to run checks on virtual threads when the JVM supports them
+     */
+    public CheckExecutor(int maxConcurrentChecks, int maxConcurrentChecksPerHost, boolean virtualThreads) {
+        this.globalPermits = new Semaphore(maxConcurrentChecks, true);
+        this.perHostLimit = maxConcurrentChecksPerHost;
+        ExecutorService executor = virtualThreads ? newVirtualThreadExecutor() : null;
+        this.workers = executor != null ? executor : newPlatformThreadExecutor();
+    }
+
+    /**
+     * Starts a check for the given target unless one is already in flight.
+     *
+     * @param target the observed URL, used for the per-host limit and overlap detection
+     * @param check the work to run
+     * @return whether the check was started
+     */
+    public boolean submit(String target, Runnable check) {
+        if (!running.add(target)) {
+            System.out.println("⏳ Previous check still running, skipping " + target);
+            return false;
+        }
+
+        try {
+            workers.execute(() -> runLimited(target, check));
+            return true;
+        } catch (RejectedExecutionException e) {
+            running.remove(target);
+            return false;
+        }
+    }
+
+    /**
+     * @return the number of submitted checks still waiting for a global or per-host permit
+     */
+    public int queued() {
+        return Math.max(0, running.size() - active.get());
+    }
+
+    /**
+     * @return the number of checks currently running
+     */
+    public int active() {
+        return active.get();
+    }
+
+    /**
+     * Stops accepting checks and interrupts the ones in flight.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void runLimited(String target, Runnable check) {
+        Semaphore host = hostPermits.computeIfAbsent(hostOf(target), h -> new Semaphore(perHostLimit, true));
+        try {
+            globalPermits.acquire();
+            try {
+                host.acquire();
+                active.incrementAndGet();
+                try {
+                    check.run();
+                } finally {
+                    active.decrementAndGet();
+                    host.release();
+                }
+            } finally {
+                globalPermits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running.remove(target);
+        }
+    }
+
+    private static String hostOf(String target) {
+        try {
+            String host = URI.create(target).getHost();
+            return host != null ? host : target;
+        } catch (IllegalArgumentException e) {
+            return target;
+        }
+    }
+
+    /**
+     * Creates a thread-per-task executor backed by virtual threads. Looked up reflectively so the
+     * project still builds on a Java 17 toolchain.
+     *
+     * @return the executor, or {@code null} if the running JVM has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.out.println("ℹ️ Virtual threads unavailable on this JVM, using platform threads for checks");
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformThreadExecutor() {
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "sentinel-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
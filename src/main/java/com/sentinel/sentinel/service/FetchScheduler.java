@@ -0,0 +1,161 @@
+package com.sentinel.sentinel.service;
+
+import com.sentinel.sentinel.SentinelProperties;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spaces out requests to each host so many targets on the same site don't get Sentinel throttled.
+ *
+ * <p>Every host has a token bucket holding up to {@code hostBurst} requests and refilling at
+ * {@code hostRequestsPerSecond}. A check reserves its request before it takes a check slot; when
+ * the bucket is empty the reservation is for a later time and the target is re-armed for it on the
+ * observer's timer, whose queue is ordered by due time. Reservations are handed out in order, so
+ * targets on a busy host take turns instead of retrying against each other.
+ *
+ * <p>A 429 or 503 blocks the host until its {@code Retry-After}, or for an exponentially growing
+ * penalty when the header is missing, and every reservation for the host waits until then.
+ */
+public class FetchScheduler {
+
+    private static final Duration MIN_PENALTY = Duration.ofSeconds(1);
+
+    /** Nanos between two requests to a host once its burst is used up. */
+    private final long emissionInterval;
+    /** How far ahead of the bucket's schedule a request may go, i.e. the burst. */
+    private final long burstTolerance;
+    private final Duration throttlePenalty;
+    private final Duration maxThrottlePenalty;
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * The bucket as the time it will next be full (the generic cell rate algorithm's form of a token
+     * bucket), and the throttle block.
+     */
+    private static final class HostState {
+        long fullAt = Long.MIN_VALUE;
+        long blockedUntil = Long.MIN_VALUE;
+        int strikes;
+    }
+
+    /**
+     * @param settings the scheduler settings, for the per-host rate, burst and throttle penalties
+     */
+    public FetchScheduler(SentinelProperties.Scheduler settings) {
+        this(settings.getHostRequestsPerSecond(), settings.getHostBurst(), settings.getThrottlePenalty(),
+                settings.getMaxThrottlePenalty());
+    }
+
+    /**
+     * @param requestsPerSecond sustained requests per second to one host
+     * @param burst requests a host that has been idle may receive at once
+     * @param throttlePenalty how long a host is left alone after a 429/503 without {@code Retry-After};
+     *                        doubled for each consecutive one
+     * @param maxThrottlePenalty upper bound of any block, including {@code Retry-After} values
+     */
+    public FetchScheduler(double requestsPerSecond, int burst, Duration throttlePenalty, Duration maxThrottlePenalty) {
+        this.emissionInterval = Math.max(1, Math.round(1e9 / requestsPerSecond));
+        this.burstTolerance = emissionInterval * Math.max(0, burst - 1);
+        this.throttlePenalty = throttlePenalty.compareTo(MIN_PENALTY) < 0 ? MIN_PENALTY : throttlePenalty;
+        this.maxThrottlePenalty = maxThrottlePenalty;
+    }
+
+    /**
+     * Reserves the next request to a target's host.
+     *
+     * @param target the target URL
+     * @return how long to wait before sending the request; zero when it may go right away
+     */
+    public Duration reserve(String target) {
+        HostState host = hosts.computeIfAbsent(hostOf(target), h -> new HostState());
+        long now = System.nanoTime();
+        synchronized (host) {
+            long start = now;
+            if (host.blockedUntil != Long.MIN_VALUE && host.blockedUntil - start > 0) start = host.blockedUntil;
+            if (host.fullAt != Long.MIN_VALUE && host.fullAt - burstTolerance - start > 0) {
+                start = host.fullAt - burstTolerance;
+            }
+            long base = host.fullAt == Long.MIN_VALUE || start - host.fullAt > 0 ? start : host.fullAt;
+            host.fullAt = base + emissionInterval;
+            return Duration.ofNanos(start - now);
+        }
+    }
+
+    /**
+     * Blocks a host after it answered 429 Too Many Requests or 503 Service Unavailable.
+     *
+     * @param target the target URL
+     * @param retryAfter the server's {@code Retry-After}, or null to use the exponential penalty
+     * @return how long the host is blocked
+     */
+    public Duration throttled(String target, Duration retryAfter) {
+        HostState host = hosts.computeIfAbsent(hostOf(target), h -> new HostState());
+        synchronized (host) {
+            host.strikes++;
+            Duration block = retryAfter != null
+                    ? retryAfter
+                    : throttlePenalty.multipliedBy(1L << Math.min(host.strikes - 1, 20));
+            if (block.compareTo(maxThrottlePenalty) > 0) block = maxThrottlePenalty;
+
+            long until = System.nanoTime() + block.toNanos();
+            if (host.blockedUntil == Long.MIN_VALUE || until - host.blockedUntil > 0) host.blockedUntil = until;
+            // The bucket is empty when the block lifts, so requests resume at the sustained rate
+            long emptyAt = host.blockedUntil + burstTolerance;
+            if (host.fullAt == Long.MIN_VALUE || emptyAt - host.fullAt > 0) host.fullAt = emptyAt;
+            return block;
+        }
+    }
+
+    /**
+     * Resets the throttle penalty of a host that answered normally.
+     *
+     * @param target the target URL
+     */
+    public void succeeded(String target) {
+        HostState host = hosts.get(hostOf(target));
+        if (host == null) return;
+        synchronized (host) {
+            host.strikes = 0;
+        }
+    }
+
+    /**
+     * Parses a {@code Retry-After} header, given either as delta-seconds or as an HTTP date.
+     *
+     * @param header the header value, or null
+     * @return the delay it asks for, or null when absent or unreadable
+     */
+    public static Duration parseRetryAfter(String header) {
+        if (header == null || header.isBlank()) return null;
+        String value = header.strip();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            // Not delta-seconds; try an HTTP date
+        }
+        try {
+            Instant at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            Duration delay = Duration.between(Instant.now(), at);
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    static String hostOf(String target) {
+        try {
+            String host = URI.create(target).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : target;
+        } catch (IllegalArgumentException e) {
+            return target;
+        }
+    }
+}
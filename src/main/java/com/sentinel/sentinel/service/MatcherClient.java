@@ -0,0 +1,186 @@
+package com.sentinel.sentinel.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sentinel.sentinel.SentinelMetrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * HTTP client for the Python matcher.
+ *
+ * <p>One {@link HttpClient} is shared for the lifetime of the client, so connections to the matcher
+ * are kept alive and reused across checks. Requests are sent asynchronously and responses are parsed
+ * into typed records with a shared {@link ObjectMapper}.
+ */
+public class MatcherClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final HttpClient client;
+    private final URI batchUri;
+    private final URI embedUri;
+    private final URI healthUri;
+    private final Duration requestTimeout;
+    private final SentinelMetrics metrics = SentinelMetrics.global();
+
+    /**
+     * One query of a {@code POST /match/batch} request.
+     *
+     * @param sentences indices of the request's sentences to score for this query, or null for all
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record BatchQuery(String id, String query, List<Integer> sentences) {}
+
+    /**
+     * Body of a {@code POST /match/batch} request, carrying the page's sentences.
+     *
+     * @param threshold entailment probability a sentence must exceed, or null for the matcher's default
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record BatchRequest(String url, List<String> sentences, List<BatchQuery> queries, Double threshold) {}
+
+    /**
+     * Verdict for one query of a batch.
+     *
+     * @param scores entailment probability of each scored sentence, in request order
+     */
+    public record BatchResult(String id, boolean matched, List<Double> scores) {}
+
+    /**
+     * Response of {@code GET /health}.
+     *
+     * @param stage what the matcher is doing while it starts, e.g. {@code loading model}, or
+     *              {@code failed} when the model could not be loaded
+     * @param progress fraction of the startup stages completed, from 0 to 1
+     * @param error why loading failed, if it did
+     */
+    public record Health(boolean ready, String stage, Double progress, String error) {}
+
+    /** Response of {@code POST /match/batch}, with the model that scored it and the time it spent. */
+    public record BatchResponse(List<BatchResult> results, String model,
+                                @JsonProperty("inference_ms") Double inferenceMs) {}
+
+    /**
+     * Response of {@code POST /embed}.
+     *
+     * @param embeddings one unit-length vector per text, in request order
+     * @param model id of the embedding model
+     */
+    public record EmbedResponse(List<float[]> embeddings, String model,
+                                @JsonProperty("inference_ms") Double inferenceMs) {}
+
+    /**
+     * @param port the local port the matcher listens on
+     * @param connectTimeout how long to wait when opening a connection
+     * @param requestTimeout how long to wait for a response, including inference
+     */
+    public MatcherClient(int port, Duration connectTimeout, Duration requestTimeout) {
+        URI base = URI.create("http://localhost:" + port);
+        this.batchUri = base.resolve("/match/batch");
+        this.embedUri = base.resolve("/embed");
+        this.healthUri = base.resolve("/health");
+        this.requestTimeout = requestTimeout;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+    }
+
+    /**
+     * Scores queries against sentences, each query only against the sentence indices it names.
+     *
+     * @param url the observed page
+     * @param sentences the page's sentences
+     * @param queries the queries with their sentence subsets
+     * @param threshold entailment probability a sentence must exceed to match
+     * @return a future completing with per-sentence scores and verdicts
+     */
+    public CompletableFuture<BatchResponse> scoreSentences(String url, List<String> sentences, List<BatchQuery> queries,
+                                                           double threshold) {
+        return postBatch(new BatchRequest(url, sentences, queries, threshold));
+    }
+
+    /**
+     * Embeds texts with the matcher's bi-encoder, for ranking sentences by similarity to a query.
+     *
+     * @param texts the queries or sentences to embed
+     * @return a future completing with one unit-length vector per text
+     */
+    public CompletableFuture<EmbedResponse> embed(List<String> texts) {
+        return post(embedUri, Map.of("texts", texts), EmbedResponse.class);
+    }
+
+    private CompletableFuture<BatchResponse> postBatch(BatchRequest request) {
+        return post(batchUri, request, BatchResponse.class)
+                .thenApply(response -> {
+                    if (response.inferenceMs() != null) {
+                        metrics.recordInference(response.inferenceMs());
+                    }
+                    return response;
+                });
+    }
+
+    /**
+     * Fetches the matcher's readiness and model load progress.
+     *
+     * @return a future completing with the reported health, or with stage {@code unreachable} when
+     *         the matcher doesn't answer; never fails
+     */
+    public CompletableFuture<Health> health() {
+        HttpRequest request = HttpRequest.newBuilder(healthUri)
+                .timeout(Duration.ofSeconds(1))
+                .GET()
+                .build();
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    try {
+                        return MAPPER.readValue(response.body(), Health.class);
+                    } catch (IOException e) {
+                        return new Health(response.statusCode() == 200, null, null, null);
+                    }
+                })
+                .exceptionally(e -> new Health(false, "unreachable", null, null));
+    }
+
+    private <T> CompletableFuture<T> post(URI uri, Object body, Class<T> responseType) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(uri)
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        long started = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> metrics.recordMatcherRoundTrip(uri.getPath(), System.nanoTime() - started))
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new CompletionException(new IOException("Server returned non-200 status: " + response.statusCode()));
+                    }
+                    try {
+                        return MAPPER.readValue(response.body(), responseType);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Unreadable matcher response from " + uri, e);
+                    }
+                });
+    }
+}
@@ -0,0 +1,38 @@
+package com.sentinel.sentinel.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Text extracted from an observed page, in one section per region its tasks watch.
+ *
+ * @param url the page that was fetched
+ * @param sections the sentences of each requested region, keyed by CSS selector, or by
+ *                 {@link #WHOLE_PAGE} for the whole page
+ * @param hash a hash of the distinct contents of the sections, whatever selectors extracted them
+ * @param notModified whether the server answered the conditional request with 304 Not Modified
+ */
+public record Page(String url, Map<String, Section> sections, String hash, boolean notModified) {
+
+    /** Section key of the whole page, for tasks without a selector. */
+    public static final String WHOLE_PAGE = "";
+
+    private static final Section EMPTY = new Section(List.of(), "", false);
+
+    /**
+     * The visible text of one region, already split into sentences.
+     *
+     * @param sentences the region's sentences, in document order
+     * @param hash a content hash of {@code sentences}, used to skip matching when nothing changed
+     * @param truncated whether the byte or character cap cut the region short
+     */
+    public record Section(List<String> sentences, String hash, boolean truncated) {}
+
+    /**
+     * @param selector a CSS selector, or {@link #WHOLE_PAGE}
+     * @return the region's section, or an empty one if it wasn't requested
+     */
+    public Section section(String selector) {
+        return sections.getOrDefault(selector, EMPTY);
+    }
+}
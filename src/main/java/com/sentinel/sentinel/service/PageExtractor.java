@@ -0,0 +1,230 @@
+package com.sentinel.sentinel.service;
+
+import com.sentinel.sentinel.matcher.Sentences;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+import org.jsoup.select.QueryParser;
+import org.jsoup.select.Selector;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts the visible text of a page while it is parsed, without keeping the whole document.
+ *
+ * <p>jsoup's {@link StreamParser} hands over each element as soon as its end tag is read. When a
+ * block element closes, the text before it in its ancestors and then its own text are fed to the
+ * {@link Sentences.Segmenter} of every section they belong to, and removed from the tree. The
+ * document therefore only holds the content still being read and its open ancestors, and sentences
+ * are ready as soon as their block ends. Parsing stops once every section has reached its
+ * character cap.
+ *
+ * <p>Text belongs to a selector's section when its parent or one of its ancestors matches the
+ * selector. Ancestors are checked while their content is consumed, so selectors that depend on
+ * content read later, such as {@code :has()} or {@code :last-child}, aren't supported.
+ */
+final class PageExtractor {
+
+    private final List<Region> regions = new ArrayList<>();
+
+    /** The sentences of one section, and how much text it has taken so far. */
+    private static final class Region {
+        final String key;
+        /** Null for the whole page. */
+        final Evaluator evaluator;
+        final boolean valid;
+        final int maxChars;
+        final List<String> sentences = new ArrayList<>();
+        final MessageDigest digest = sha256();
+        final Sentences.Segmenter segmenter = new Sentences.Segmenter(this::add);
+        int chars;
+        boolean truncated;
+
+        Region(String key, Evaluator evaluator, boolean valid, int maxChars) {
+            this.key = key;
+            this.evaluator = evaluator;
+            this.valid = valid;
+            this.maxChars = maxChars;
+        }
+
+        boolean full() {
+            return !valid || truncated;
+        }
+
+        void accept(String text) {
+            if (full()) return;
+            if (chars + text.length() > maxChars) {
+                text = text.substring(0, maxChars - chars);
+                truncated = true;
+            }
+            chars += text.length();
+            segmenter.append(text);
+        }
+
+        private void add(String sentence) {
+            sentences.add(sentence);
+            digest.update(sentence.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+
+        Page.Section finish() {
+            segmenter.finish();
+            return new Page.Section(List.copyOf(sentences), HexFormat.of().formatHex(digest.digest()), truncated);
+        }
+    }
+
+    private PageExtractor(Collection<String> sections, int maxChars) {
+        for (String key : sections) {
+            if (Page.WHOLE_PAGE.equals(key)) {
+                regions.add(new Region(key, null, true, maxChars));
+                continue;
+            }
+            try {
+                regions.add(new Region(key, QueryParser.parse(key), true, maxChars));
+            } catch (Selector.SelectorParseException e) {
+                System.err.println("⚠️ Invalid selector '" + key + "': " + e.getMessage());
+                regions.add(new Region(key, null, false, maxChars));
+            }
+        }
+    }
+
+    /**
+     * Parses a page and extracts the requested sections as it goes.
+     *
+     * @param html the page body, read as it arrives
+     * @param baseUri the page's URL
+     * @param sections CSS selectors to extract, or {@link Page#WHOLE_PAGE}
+     * @param maxChars characters of text kept per section
+     * @return the sentences of every requested section, keyed as requested
+     * @throws IOException if reading the body fails
+     */
+    static Map<String, Page.Section> extract(Reader html, String baseUri, Collection<String> sections, int maxChars)
+            throws IOException {
+        PageExtractor extractor = new PageExtractor(sections, maxChars);
+        try (StreamParser streamer = new StreamParser(Parser.htmlParser()).parse(html, baseUri)) {
+            Iterator<Element> closed = streamer.stream().iterator();
+            while (extractor.accepting() && closed.hasNext()) {
+                Element element = closed.next();
+                if (element.isBlock()) extractor.consumeBlock(element);
+            }
+            // Whatever is left: text after the last block, or blocks the byte cap left unclosed
+            if (extractor.accepting()) {
+                extractor.consume(new ArrayList<>(streamer.document().childNodes()));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        Map<String, Page.Section> extracted = new LinkedHashMap<>();
+        for (Region region : extractor.regions) {
+            extracted.put(region.key, region.finish());
+        }
+        return extracted;
+    }
+
+    private boolean accepting() {
+        for (Region region : regions) {
+            if (!region.full()) return true;
+        }
+        return false;
+    }
+
+    /** Consumes a closed block together with the content preceding it in each of its ancestors. */
+    private void consumeBlock(Element block) {
+        consumePreceding(block);
+        consume(new ArrayList<>(block.childNodes()));
+        separate();
+        block.remove();
+    }
+
+    /** Consumes what comes before a node in document order, outermost ancestor first. */
+    private void consumePreceding(Node node) {
+        Element parent = node.parent() instanceof Element element ? element : null;
+        if (parent == null) return;
+        consumePreceding(parent);
+        if (node.siblingIndex() > 0) {
+            consume(new ArrayList<>(parent.childNodes().subList(0, node.siblingIndex())));
+        }
+    }
+
+    /** Feeds the text of the given nodes to their sections, then removes the nodes. */
+    private void consume(List<Node> nodes) {
+        if (nodes.isEmpty()) return;
+
+        Map<Element, boolean[]> membership = new IdentityHashMap<>();
+        NodeVisitor visitor = new NodeVisitor() {
+            @Override
+            public void head(Node node, int depth) {
+                if (node instanceof TextNode text) {
+                    boolean[] member = membership.computeIfAbsent(text.parent() instanceof Element parent ? parent : null,
+                            PageExtractor.this::sectionsOf);
+                    for (int i = 0; i < regions.size(); i++) {
+                        if (member[i]) regions.get(i).accept(text.getWholeText());
+                    }
+                } else if (node instanceof Element element && (element.isBlock() || element.normalName().equals("br"))) {
+                    separate();
+                }
+            }
+
+            @Override
+            public void tail(Node node, int depth) {
+                if (node instanceof Element element && element.isBlock()) separate();
+            }
+        };
+        for (Node node : nodes) {
+            NodeTraversor.traverse(visitor, node);
+        }
+        separate();
+        nodes.forEach(Node::remove);
+    }
+
+    /** Which sections text directly under the element belongs to, by region index. */
+    private boolean[] sectionsOf(Element parent) {
+        boolean[] member = new boolean[regions.size()];
+        for (int i = 0; i < regions.size(); i++) {
+            Region region = regions.get(i);
+            if (!region.valid) continue;
+            if (region.evaluator == null) {
+                member[i] = true;
+                continue;
+            }
+            for (Element element = parent; element != null && !member[i]; element = element.parent()) {
+                member[i] = element.is(region.evaluator);
+            }
+        }
+        return member;
+    }
+
+    /** Marks a block boundary, which separates words but not sentences, as in {@link Element#text()}. */
+    private void separate() {
+        for (Region region : regions) {
+            if (!region.full()) region.segmenter.append(" ");
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
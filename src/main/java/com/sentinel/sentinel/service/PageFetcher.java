@@ -0,0 +1,250 @@
+package com.sentinel.sentinel.service;
+
+import com.sentinel.sentinel.SentinelMetrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Downloads observed pages and extracts their visible text.
+ *
+ * <p>Pages are fetched once per target per check cycle and the extracted text is handed to the
+ * matcher for every query watching that target, instead of each query downloading the page itself.
+ *
+ * <p>The body is streamed into {@link PageExtractor}, which segments sentences as the page is
+ * parsed. At most {@code maxBodyBytes} are read and {@code maxTextChars} characters kept per
+ * section, and the download is abandoned as soon as every requested section is full, so memory per
+ * check stays bounded whatever the page size. Tasks may scope their query to a CSS selector; each
+ * distinct selector is extracted as its own section from the same download.
+ *
+ * <p>The fetcher remembers the {@code ETag} and {@code Last-Modified} validators of every target and
+ * sends them back as {@code If-None-Match}/{@code If-Modified-Since}. On a 304 the previously
+ * extracted sections are reused, so callers can compare {@link Page.Section#hash()} and skip
+ * matching entirely.
+ *
+ * <p>A 429 or 503 is reported to the {@link FetchScheduler}, which keeps every target on that host
+ * waiting until the server's {@code Retry-After}, and fails the fetch with {@link ThrottledException}.
+ * Any other status outside 2xx, apart from the 304 answering a revalidation, fails the fetch as
+ * well: error pages are never extracted, cached or matched.
+ */
+public class PageFetcher {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(8);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private final Map<String, CachedPage> cache = new ConcurrentHashMap<>();
+    private final FetchScheduler politeness;
+    private final long maxBodyBytes;
+    private final int maxTextChars;
+    private final SentinelMetrics metrics = SentinelMetrics.global();
+
+    /** Validators and extracted sections from the last successful fetch of a target. */
+    private record CachedPage(String etag, String lastModified, Map<String, Page.Section> sections) {}
+
+    /** Thrown when the server asked Sentinel to slow down; the host is blocked until {@link #getRetryAfter()}. */
+    public static class ThrottledException extends IOException {
+        private final Duration retryAfter;
+
+        ThrottledException(String url, int status, Duration retryAfter) {
+            super("Throttled by " + url + " (HTTP " + status + "), retrying in " + retryAfter.toSeconds() + "s");
+            this.retryAfter = retryAfter;
+        }
+
+        /**
+         * @return how long requests to the host are held back
+         */
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+    }
+
+    /** Ends the body after {@code limit} bytes, remembering whether there was more. */
+    private static final class CappedInputStream extends FilterInputStream {
+        private long remaining;
+        private boolean capped;
+
+        CappedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                capped = capped || in.read() >= 0;
+                return -1;
+            }
+            int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) remaining -= read;
+            return read;
+        }
+    }
+
+    /**
+     * @param politeness per-host rate limits, told about every throttled and successful response
+     * @param maxBodyBytes bytes of a response body read at most
+     * @param maxTextChars characters of text kept per section
+     */
+    public PageFetcher(FetchScheduler politeness, long maxBodyBytes, int maxTextChars) {
+        this.politeness = politeness;
+        this.maxBodyBytes = maxBodyBytes;
+        this.maxTextChars = maxTextChars;
+    }
+
+    /**
+     * Fetches a page and extracts its whole text.
+     *
+     * @param url the page to download
+     * @return the page with its {@link Page#WHOLE_PAGE} section
+     * @throws IOException if the page cannot be downloaded
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public Page fetch(String url) throws IOException, InterruptedException {
+        return fetch(url, Set.of(Page.WHOLE_PAGE));
+    }
+
+    /**
+     * Fetches a page, revalidating against the last known copy when possible, and extracts the
+     * requested sections.
+     *
+     * @param url the page to download
+     * @param sections CSS selectors to extract, or {@link Page#WHOLE_PAGE}
+     * @return the extracted sections, each capped at {@code maxTextChars} characters, and their hashes
+     * @throws IOException if the page cannot be downloaded or the server answers with an error status
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public Page fetch(String url, Collection<String> sections) throws IOException, InterruptedException {
+        URI uri = URI.create(url);
+        String host = uri.getHost() != null ? uri.getHost() : url;
+        long started = System.nanoTime();
+        try {
+            Page page = fetch(uri, url, new TreeSet<>(sections));
+            metrics.recordFetch(host, page.notModified() ? "not_modified" : "ok", System.nanoTime() - started);
+            return page;
+        } catch (ThrottledException e) {
+            metrics.recordFetch(host, "throttled", System.nanoTime() - started);
+            throw e;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            metrics.recordFetch(host, "error", System.nanoTime() - started);
+            throw e;
+        }
+    }
+
+    private Page fetch(URI uri, String url, Set<String> sections) throws IOException, InterruptedException {
+        CachedPage cached = cache.get(url);
+        // A section nobody asked for last time can't be answered from a 304
+        boolean revalidate = cached != null && cached.sections().keySet().containsAll(sections);
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(TIMEOUT)
+                .GET();
+        if (revalidate) {
+            if (cached.etag() != null) request.header("If-None-Match", cached.etag());
+            if (cached.lastModified() != null) request.header("If-Modified-Since", cached.lastModified());
+        }
+
+        HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        try (CappedInputStream body = new CappedInputStream(response.body(), maxBodyBytes)) {
+            if (response.statusCode() == 429 || response.statusCode() == 503) {
+                Duration retryAfter = FetchScheduler.parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null));
+                throw new ThrottledException(url, response.statusCode(), politeness.throttled(url, retryAfter));
+            }
+            politeness.succeeded(url);
+
+            if (response.statusCode() == 304 && revalidate) {
+                Map<String, Page.Section> reused = new HashMap<>();
+                sections.forEach(key -> reused.put(key, cached.sections().get(key)));
+                return new Page(url, reused, hashOf(reused), true);
+            }
+            // An error page isn't the page; matching it could satisfy conditions like "no longer mentions"
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new IOException("HTTP " + response.statusCode() + " from " + url);
+            }
+
+            Map<String, Page.Section> extracted;
+            try (Reader reader = new InputStreamReader(body, charsetOf(response))) {
+                extracted = PageExtractor.extract(reader, url, sections, maxTextChars);
+            }
+            if (body.capped) {
+                System.out.println("✂️ Read only the first " + maxBodyBytes + " bytes of " + url);
+                extracted.replaceAll((key, section) -> new Page.Section(section.sentences(), section.hash(), true));
+            }
+
+            cache.put(url, new CachedPage(
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null),
+                    extracted
+            ));
+            return new Page(url, extracted, hashOf(extracted), false);
+        }
+    }
+
+    /**
+     * Drops the cached validators and text for a target once nothing observes it anymore.
+     *
+     * @param url the target to forget
+     */
+    public void forget(String url) {
+        cache.remove(url);
+    }
+
+    /** The charset named by {@code Content-Type}, or UTF-8. */
+    private static Charset charsetOf(HttpResponse<?> response) {
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        for (String parameter : contentType.split(";")) {
+            String[] pair = parameter.strip().split("=", 2);
+            if (pair.length == 2 && pair[0].strip().toLowerCase(Locale.ROOT).equals("charset")) {
+                try {
+                    return Charset.forName(pair[1].strip().replace("\"", ""));
+                } catch (IllegalArgumentException e) {
+                    break;
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /** Hashes what the sections hold, not which selectors they came from. */
+    private static String hashOf(Map<String, Page.Section> sections) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String hash : new TreeSet<>(sections.values().stream().map(Page.Section::hash).toList())) {
+                digest.update(hash.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.sentinel.sentinel.service;
+
+import com.sentinel.sentinel.SentinelProperties;
+import com.sentinel.sentinel.Task;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides how long to wait before checking a target again.
+ *
+ * <p>Every target starts from a base interval (the shortest interval requested by its pending tasks)
+ * and carries a backoff factor. Each check that finds the page unchanged stretches the factor by
+ * {@code backoffMultiplier}; each check that finds new content halves it, so busy pages are polled
+ * more often than static ones. The resulting delay is clamped to {@code [minInterval, maxInterval]}
+ * (widened to include the base interval itself) and randomized by {@code ±jitter} so targets drift apart instead of firing in lockstep.
+ */
+public class PollingPolicy {
+
+    private final Duration defaultInterval;
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final double backoffMultiplier;
+    private final double jitter;
+
+    public PollingPolicy(SentinelProperties.Scheduler settings) {
+        this.defaultInterval = settings.getDefaultInterval();
+        this.minInterval = settings.getMinInterval();
+        this.maxInterval = settings.getMaxInterval();
+        this.backoffMultiplier = settings.getBackoffMultiplier();
+        this.jitter = settings.getJitter();
+    }
+
+    /**
+     * @param tasks the pending tasks of one target
+     * @return the shortest interval any of them asked for, or the default if none did
+     */
+    public Duration baseInterval(Collection<Task> tasks) {
+        Duration base = null;
+        for (Task task : tasks) {
+            Duration interval = task.getIntervalSeconds() > 0
+                    ? Duration.ofSeconds(task.getIntervalSeconds())
+                    : defaultInterval;
+            if (base == null || interval.compareTo(base) < 0) base = interval;
+        }
+        return base != null ? base : defaultInterval;
+    }
+
+    /**
+     * @param base the target's base interval
+     * @return a random phase within the first interval, so targets loaded together don't fire together
+     */
+    public Duration initialDelay(Duration base) {
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(Math.max(1, base.toMillis())));
+    }
+
+    /**
+     * @param factor the target's current backoff factor
+     * @param changed whether the last check saw new content
+     * @param base the target's base interval
+     * @return the new factor, kept within the bounds that {@code minInterval}/{@code maxInterval} allow
+     */
+    public double adjust(double factor, boolean changed, Duration base) {
+        double next = changed ? factor / 2 : factor * backoffMultiplier;
+        double baseMillis = Math.max(1, base.toMillis());
+        double lower = minInterval.toMillis() / baseMillis;
+        double upper = maxInterval.toMillis() / baseMillis;
+        return Math.max(Math.min(lower, 1.0), Math.min(next, Math.max(upper, 1.0)));
+    }
+
+    /**
+     * @param base the target's base interval
+     * @param factor the target's backoff factor
+     * @return the delay before the next check, with jitter applied
+     */
+    public Duration nextDelay(Duration base, double factor) {
+        // An explicitly requested interval outside the adaptive bounds is still honoured
+        double lower = Math.min(minInterval.toMillis(), base.toMillis());
+        double upper = Math.max(maxInterval.toMillis(), base.toMillis());
+        double millis = Math.max(lower, Math.min(upper, base.toMillis() * factor));
+        if (jitter > 0) millis *= 1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        return Duration.ofMillis(Math.round(millis));
+    }
+}
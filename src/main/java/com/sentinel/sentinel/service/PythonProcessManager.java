@@ -1,20 +1,303 @@
 package com.sentinel.sentinel.service;
 
+import com.sentinel.sentinel.SentinelProperties;
+
 import java.io.*;
 import java.net.ServerSocket;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
+/**
+ * Runs a pool of Python matcher workers, each a separate process on its own port holding its own
+ * copy of the model, so inference scales across cores.
+ *
+ * <p>Requests are routed through {@link #call(Function)} to the healthy worker with the fewest
+ * outstanding requests. A supervisor polls every worker's {@code /health}. Workers that die, stop
+ * answering, or never become ready are restarted with exponential backoff. On shutdown the pool stops
+ * accepting requests and waits for in-flight ones to finish before stopping the processes.
+ *
+ * <p>Workers load their model in the background and report progress on {@code /health}, so
+ * {@link #startPool} returns as soon as the processes are launched and {@link #ready()} completes
+ * once the first worker can serve requests. One pool is shared per JVM through {@link #shared()}.
+ */
 public class PythonProcessManager {
-    private Process pythonProcess;
+    private static final PythonProcessManager SHARED = new PythonProcessManager();
+
+    /** Consecutive failed health checks after which a ready worker is restarted. */
+    private static final int MAX_HEALTH_FAILURES = 3;
+    private static final Duration MIN_RESTART_BACKOFF = Duration.ofSeconds(1);
+    /** How often workers that are still starting are polled for readiness. */
+    private static final Duration STARTUP_POLL_INTERVAL = Duration.ofMillis(500);
+
     private String pythonPath = ".venv/bin/python"; // fallback
 
+    private final Set<Process> processes = ConcurrentHashMap.newKeySet();
+    private final List<Worker> workers = new CopyOnWriteArrayList<>();
+    private SentinelProperties.Matcher settings;
+    private ScheduledExecutorService supervisor;
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private File script;
+    private boolean shutdownHookAdded = false;
+    private volatile boolean draining = false;
+
+    /** One matcher process and the bookkeeping used to route to and supervise it. */
+    private static final class Worker {
+        final int index;
+        final AtomicInteger outstanding = new AtomicInteger();
+        volatile Process process;
+        volatile MatcherClient client;
+        volatile boolean healthy;
+        long startedAt;
+        long restartAt;
+        long nextCheckAt;
+        String stage;
+        int failures;
+        int restarts;
+
+        Worker(int index) {
+            this.index = index;
+        }
+    }
+
+    /**
+     * @return the matcher pool shared by everything in this JVM
+     */
+    public static PythonProcessManager shared() {
+        return SHARED;
+    }
+
     public void setPythonPath(String path) {
         this.pythonPath = path;
     }
 
-    public void startPythonServer(int port) throws IOException {
+    /**
+     * Starts {@code settings.getWorkers()} matcher workers and their supervisor. Returns once the
+     * processes are launched; use {@link #ready()} to learn when the model has loaded. Calls after
+     * the first successful one are no-ops, so its settings apply. If a worker fails to launch, the
+     * ones already started are stopped before the error is thrown.
+     *
+     * @param settings pool size, timeouts and supervision settings
+     * @throws IOException if a worker process cannot be launched
+     */
+    public synchronized void startPool(SentinelProperties.Matcher settings) throws IOException {
+        if (supervisor != null) return;
+        this.settings = settings;
+
+        try {
+            for (int i = 0; i < Math.max(1, settings.getWorkers()); i++) {
+                Worker worker = new Worker(i);
+                launch(worker);
+                workers.add(worker);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Leave nothing behind, so the next attempt starts a full pool on fresh ports
+            for (Worker worker : workers) {
+                Process process = worker.process;
+                if (process != null) {
+                    process.destroy();
+                    processes.remove(process);
+                }
+            }
+            workers.clear();
+            throw e;
+        }
+
+        supervisor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sentinel-matcher-supervisor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.min(settings.getHealthCheckInterval().toMillis(), STARTUP_POLL_INTERVAL.toMillis());
+        supervisor.scheduleWithFixedDelay(this::supervise, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return a future that completes once the first worker reports its model loaded
+     */
+    public CompletableFuture<Void> ready() {
+        return ready;
+    }
+
+    /**
+     * Blocks until at least one worker reports itself healthy.
+     *
+     * @param timeout how long to wait
+     * @throws IOException if no worker becomes healthy in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void awaitReady(Duration timeout) throws IOException, InterruptedException {
+        try {
+            ready.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("Timed out waiting for a Python matcher worker to become healthy");
+        } catch (ExecutionException e) {
+            throw new IOException("Python matcher failed to start", e.getCause());
+        }
+    }
+
+    /**
+     * Sends a request to the healthy worker with the fewest requests in flight.
+     *
+     * @param request issues the call on the chosen worker's client
+     * @return the request's future, or a failed future when no worker is available
+     */
+    public <T> CompletableFuture<T> call(Function<MatcherClient, CompletableFuture<T>> request) {
+        if (draining) {
+            return CompletableFuture.failedFuture(new IOException("Python matcher is shutting down"));
+        }
+
+        Worker worker = workers.stream()
+                .filter(w -> w.healthy)
+                .min(Comparator.comparingInt(w -> w.outstanding.get()))
+                .orElse(null);
+        MatcherClient client = worker != null ? worker.client : null;
+        if (client == null) {
+            return CompletableFuture.failedFuture(new IOException("No healthy Python matcher worker"));
+        }
+
+        worker.outstanding.incrementAndGet();
+        CompletableFuture<T> response;
+        try {
+            response = request.apply(client);
+        } catch (RuntimeException e) {
+            worker.outstanding.decrementAndGet();
+            return CompletableFuture.failedFuture(e);
+        }
+        return response.whenComplete((result, error) -> worker.outstanding.decrementAndGet());
+    }
+
+    /**
+     * @return the number of workers currently accepting requests
+     */
+    public int healthyWorkers() {
+        return (int) workers.stream().filter(w -> w.healthy).count();
+    }
+
+    /**
+     * Stops routing new requests, waits up to the configured drain timeout for in-flight requests,
+     * then stops every worker process.
+     */
+    public void shutdown() {
+        draining = true;
+        if (supervisor != null) supervisor.shutdownNow();
+
+        long deadline = System.nanoTime() + (settings != null ? settings.getDrainTimeout().toNanos() : 0);
+        while (workers.stream().anyMatch(w -> w.outstanding.get() > 0) && System.nanoTime() - deadline < 0) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        for (Process process : processes) {
+            if (process.isAlive()) {
+                System.out.println("🛑 Stopping Python matcher");
+                process.destroy();
+            }
+        }
+        processes.clear();
+    }
+
+    /**
+     * Restarts workers that died, stopped answering, or never became ready, and brings workers
+     * back once their backoff has elapsed.
+     */
+    private void supervise() {
+        if (draining) return;
+        long now = System.nanoTime();
+
+        for (Worker worker : workers) {
+            try {
+                Process process = worker.process;
+                if (process == null) {
+                    if (now - worker.restartAt >= 0) launch(worker);
+                    continue;
+                }
+
+                if (!process.isAlive()) {
+                    fail(worker, "exited with code " + process.exitValue());
+                    continue;
+                }
+                // Ready workers are checked every health-check-interval, starting ones on every tick
+                if (worker.healthy && now - worker.nextCheckAt < 0) continue;
+                worker.nextCheckAt = now + settings.getHealthCheckInterval().toNanos();
+
+                MatcherClient.Health health = worker.client.health().join();
+                if (health.ready()) {
+                    if (!worker.healthy) System.out.println("✅ Python matcher worker " + worker.index + " is healthy");
+                    worker.healthy = true;
+                    worker.failures = 0;
+                    worker.restarts = 0;
+                    ready.complete(null);
+                } else if ("failed".equals(health.stage())) {
+                    fail(worker, "failed to load its model: " + health.error());
+                } else if (worker.healthy) {
+                    if (++worker.failures >= MAX_HEALTH_FAILURES) fail(worker, "stopped answering health checks");
+                } else if (now - worker.startedAt > settings.getStartupTimeout().toNanos()) {
+                    fail(worker, "did not become ready within " + settings.getStartupTimeout());
+                } else if (health.stage() != null && !health.stage().equals(worker.stage)) {
+                    worker.stage = health.stage();
+                    String percent = health.progress() != null ? " (" + Math.round(health.progress() * 100) + "%)" : "";
+                    System.out.println("⏳ Python matcher worker " + worker.index + ": " + health.stage() + percent);
+                }
+            } catch (Exception e) {
+                System.err.println("⚠️ Error supervising Python matcher worker " + worker.index);
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void fail(Worker worker, String reason) {
+        worker.healthy = false;
+        Process process = worker.process;
+        if (process != null) {
+            process.destroy();
+            processes.remove(process);
+        }
+        worker.process = null;
+        worker.client = null;
+
+        long backoff = Math.min(
+                MIN_RESTART_BACKOFF.toMillis() << Math.min(worker.restarts, 16),
+                settings.getMaxRestartBackoff().toMillis()
+        );
+        worker.restarts++;
+        worker.restartAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff);
+        System.err.println("⚠️ Python matcher worker " + worker.index + " " + reason + ", restarting in " + backoff + " ms");
+    }
+
+    private void launch(Worker worker) throws IOException {
+        int port = findAvailablePort();
+        Process process = startPythonServer(port);
+        worker.client = new MatcherClient(port, settings.getConnectTimeout(), settings.getRequestTimeout());
+        worker.process = process;
+        worker.startedAt = System.nanoTime();
+        worker.failures = 0;
+        worker.stage = null;
+    }
+
+    /**
+     * Launches one matcher process. It is stopped by {@link #shutdown()} or when the JVM exits.
+     *
+     * @param port the port the matcher should listen on
+     * @return the started process
+     * @throws IOException if the script cannot be extracted or the process cannot be started
+     */
+    public Process startPythonServer(int port) throws IOException {
         // Resolve base directory from user.dir (project root when running from IDE)
         File projectRoot = new File(System.getProperty("user.dir"));
 
@@ -27,54 +310,65 @@ public class PythonProcessManager {
             pythonExecutable = new File(projectRoot, ".venv/bin/python").getAbsolutePath();
         }
 
-        // Extract sentinel.py from resources to a temp file
-        File tempScript = extractPythonScript("python/sentinel.py");
-        if (tempScript == null || !tempScript.exists()) {
+        // Extract sentinel.py from resources, once per script version
+        File script = extractPythonScript("python/sentinel.py");
+        if (script == null || !script.exists()) {
             throw new FileNotFoundException("❌ Could not extract sentinel.py from resources.");
         }
 
-        List<String> command = Arrays.asList(pythonExecutable, tempScript.getAbsolutePath(), "--port=" + port);
+        List<String> command = Arrays.asList(pythonExecutable, script.getAbsolutePath(), "--port=" + port);
 
         ProcessBuilder pb = new ProcessBuilder(command);
         pb.inheritIO(); // Show Python output in Java console
         pb.directory(projectRoot); // run from project root
-        pythonProcess = pb.start();
+        Process process = pb.start();
+        processes.add(process);
 
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            if (pythonProcess != null && pythonProcess.isAlive()) {
-                System.out.println("🛑 Stopping Python matcher");
-                pythonProcess.destroy();
+        synchronized (this) {
+            if (!shutdownHookAdded) {
+                Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
+                shutdownHookAdded = true;
             }
-        }));
+        }
 
         System.out.println("🐍 Started Python matcher on port " + port);
+        return process;
     }
 
     /**
-     * Extracts the given resource to a temp file on disk.
+     * Extracts the given resource to the temp directory, named after a hash of its content. The
+     * file is reused by later workers, restarts and JVMs for as long as the script is unchanged.
      *
      * @param resourcePath e.g. "python/sentinel.py"
-     * @return File object pointing to the extracted temp file
-     * @throws IOException if resource not found or temp creation fails
+     * @return File object pointing to the extracted script, or null if the resource is missing
+     * @throws IOException if the resource cannot be read or written
      */
-    private File extractPythonScript(String resourcePath) throws IOException {
-        InputStream stream = getClass().getClassLoader().getResourceAsStream(resourcePath);
-        if (stream == null) return null;
-
-        File temp = Files.createTempFile("sentinel", ".py").toFile();
-        temp.deleteOnExit();
+    private synchronized File extractPythonScript(String resourcePath) throws IOException {
+        if (script != null && script.exists()) return script;
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
-             BufferedWriter writer = new BufferedWriter(new FileWriter(temp))) {
+        byte[] content;
+        try (InputStream stream = getClass().getClassLoader().getResourceAsStream(resourcePath)) {
+            if (stream == null) return null;
+            content = stream.readAllBytes();
+        }
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                writer.write(line);
-                writer.newLine();
-            }
+        Path target = Path.of(System.getProperty("java.io.tmpdir"), "sentinel-" + sha256(content).substring(0, 16) + ".py");
+        if (!Files.exists(target)) {
+            Path temp = Files.createTempFile(target.getParent(), "sentinel", ".py.tmp");
+            Files.copy(new ByteArrayInputStream(content), temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
         }
 
-        return temp;
+        script = target.toFile();
+        return script;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     public int findAvailablePort() throws IOException {
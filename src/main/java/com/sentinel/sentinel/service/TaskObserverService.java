@@ -1,149 +1,845 @@
 package com.sentinel.sentinel.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sentinel.sentinel.SentinelMetrics;
+import com.sentinel.sentinel.SentinelProperties;
 import com.sentinel.sentinel.Task;
+import com.sentinel.sentinel.cluster.ClusterCoordinator;
+import com.sentinel.sentinel.cluster.TaskChange;
+import com.sentinel.sentinel.condition.Condition;
+import com.sentinel.sentinel.event.TaskEvent;
+import com.sentinel.sentinel.event.TaskEventBus;
+import com.sentinel.sentinel.matcher.EmbeddingCache;
+import com.sentinel.sentinel.matcher.EntailmentCache;
+import com.sentinel.sentinel.matcher.JavaMatcher;
+import com.sentinel.sentinel.matcher.Matcher;
+import com.sentinel.sentinel.matcher.NliMatcher;
+import com.sentinel.sentinel.matcher.Sentences;
+import com.sentinel.sentinel.store.TaskStore;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.stream.Collectors;
 
 @Component
 public class TaskObserverService {
 
-    private final PythonProcessManager matcher = new PythonProcessManager();
-    private int matcherPort;
+    private final SentinelProperties properties;
+    private final TaskStore store;
+    private final PythonProcessManager python = PythonProcessManager.shared();
+    private final Map<String, Matcher> matchers = new ConcurrentHashMap<>();
+    private boolean nliStarting = false;
+    private final EntailmentCache entailmentCache;
+    private final EmbeddingCache embeddingCache;
 
-    private final List<Task> taskList = new CopyOnWriteArrayList<>();
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
-    private static final int CHECK_INTERVAL_SECONDS = 30;
-    private static final String FILE_NAME = ".task_log.json";
+    private final FetchScheduler politeness;
+    private final PageFetcher fetcher;
 
+    private final Map<String, Task> tasksById = new ConcurrentHashMap<>();
+    /** Compiled queries of observed tasks that can be decided without a matcher. */
+    private final Map<String, Condition> conditions = new ConcurrentHashMap<>();
+    /** Observed tasks grouped by target, keyed by id so a completion removes one in O(1). */
+    private final Map<String, Map<String, Task>> tasksByTarget = new ConcurrentHashMap<>();
+    private final Set<String> pausedTasks = ConcurrentHashMap.newKeySet();
+    private final Map<String, TargetSchedule> schedules = new ConcurrentHashMap<>();
+    private final Map<String, Checked> checkedHashes = new ConcurrentHashMap<>();
+    /** Drops cancelled checks right away rather than at their due time, which may be hours off. */
+    private final ScheduledThreadPoolExecutor scheduler = newScheduler();
+    private final CheckExecutor checks;
+    private final PollingPolicy polling;
+    private final SentinelMetrics metrics = SentinelMetrics.global();
+    private final TaskEventBus events = new TaskEventBus();
+    /** Decides which targets this node observes in cluster mode; null when it observes all of them. */
+    private final ClusterCoordinator cluster;
+    /**
+     * Ids of the tasks the cluster's feed held when this node started, collected by its first
+     * heartbeat so tasks stored only here are shared once; null afterwards.
+     */
+    private volatile Set<String> sharedAtStart;
+
+    /** Section hash a task was last evaluated against, and the query and region it was evaluated for. */
+    private record Checked(String query, String section, String hash) {}
+
+    /** Section hash a region's sentence hashes were taken from, and those hashes. */
+    private record SeenSection(String hash, Set<String> sentenceHashes) {}
+
+    /** Adaptive polling state of one target, and the handle of its next check. */
+    private static final class TargetSchedule {
+        final String target;
+        volatile double backoff = 1.0;
+        /** Content hash of each region the last successful check fetched, keyed like {@link Page#sections()}. */
+        volatile Map<String, String> lastHashes;
+        volatile long plannedAt;
+        /** What the last check saw of each region of the page, keyed like {@link Page#sections()}. */
+        volatile Map<String, SeenSection> seen = Map.of();
+        /** Whether the timer already holds a request slot of the host for the next check. */
+        volatile boolean slotReserved;
+        ScheduledFuture<?> next;
+        boolean cancelled;
+
+        TargetSchedule(String target) {
+            this.target = target;
+        }
+    }
+
+    /**
+     * Observes the tasks of the default store with default settings, for the standalone SDK.
+     */
+    public TaskObserverService() {
+        this(new SentinelProperties(), null);
+    }
+
+    /**
+     * @param properties the {@code sentinel.*} settings
+     * @param store the default task store, which tasks also persist their completion to, or null to
+     *              open it through {@link TaskStore#getDefault()} configured by {@code properties}
+     */
+    @Autowired
+    public TaskObserverService(SentinelProperties properties, TaskStore store) {
+        this(properties, store, properties.getCluster().isEnabled() ? createCoordinator(properties.getCluster()) : null);
+    }
+
+    /**
+     * @param cluster decides which targets this node observes and shares tasks with the other
+     *                nodes, or null to observe every target alone
+     */
+    TaskObserverService(SentinelProperties properties, TaskStore store, ClusterCoordinator cluster) {
+        this.properties = properties;
+        if (store == null) {
+            TaskStore.configureDefault(properties.getStore().getFsync());
+            store = TaskStore.getDefault();
+        }
+        this.store = store;
+        this.checks = new CheckExecutor(
+                properties.getScheduler().getMaxConcurrentChecks(),
+                properties.getScheduler().getMaxConcurrentChecksPerHost(),
+                properties.getScheduler().isVirtualThreads()
+        );
+        this.polling = new PollingPolicy(properties.getScheduler());
+        this.politeness = new FetchScheduler(properties.getScheduler());
+        this.fetcher = new PageFetcher(politeness, properties.getFetch().getMaxBodyBytes(),
+                properties.getFetch().getMaxTextChars());
+        this.entailmentCache = new EntailmentCache(
+                properties.getMatcher().getCacheSize(),
+                properties.getMatcher().getCacheTtl()
+        );
+        this.embeddingCache = new EmbeddingCache(properties.getMatcher().getEmbeddingCacheSize());
+        this.cluster = cluster;
+        matchers.put(JavaMatcher.ID, new JavaMatcher(properties.getMatcher().getSimilarityThreshold(), conditions::get));
+
+        metrics.gauge("sentinel.scheduler.queue", checks::queued);
+        metrics.gauge("sentinel.scheduler.active", checks::active);
+        metrics.gauge("sentinel.targets", schedules::size);
+        metrics.gauge("sentinel.matcher.cache.size", entailmentCache::size);
+        metrics.gauge("sentinel.matcher.embeddings.size", embeddingCache::size);
+        metrics.gauge("sentinel.matcher.workers", python::healthyWorkers);
+    }
+
+    /**
+     * Loads and schedules every stored task. The Python matcher is only started when some pending
+     * task needs it, and this returns without waiting for it: its model loads in the background,
+     * and checks that need it are deferred until it reports ready.
+     *
+     * <p>In cluster mode the node first joins and picks up the tasks other nodes shared, then shares
+     * the pending tasks only its own store holds.
+     */
     @PostConstruct
     public void startObserving() {
-        try {
-            matcherPort = matcher.findAvailablePort();
-            matcher.startPythonServer(matcherPort);
-            waitForPythonHealth(matcherPort);
-            System.out.println("✅ Python matcher is healthy");
-        } catch (IOException | InterruptedException e) {
-            throw new RuntimeException("❌ Could not start or connect to Python matcher", e);
+        // Join before scheduling, so only targets this node owns are scheduled
+        if (cluster != null) {
+            sharedAtStart = ConcurrentHashMap.newKeySet();
+            cluster.start(ring -> rebalance(), this::apply);
         }
 
-        System.out.println("🔁 Loading tasks from " + FILE_NAME);
+        System.out.println("🔁 Loading tasks from " + TaskStore.DEFAULT_FILE_NAME);
 
-        File file = new File(FILE_NAME);
-        if (!file.exists()) {
+        // In a cluster every node would add its own copy of the demo tasks
+        if (store.isNew() && cluster == null) {
             register();  // Populate .task_log.json if missing
         }
 
         List<Task> loaded = loadTasksFromFile();
-        taskList.addAll(loaded);
-
         for (Task task : loaded) {
             scheduleTask(task);
             System.out.println("📌 Scheduled task: " + task.getQuery());
         }
+
+        if (cluster != null) {
+            Set<String> shared = sharedAtStart;
+            sharedAtStart = null;
+            share(loaded.stream().filter(task -> !task.isComplete() && !shared.contains(task.getId()))
+                    .map(TaskObserverService::added).toList());
+        }
+
+        // Only pay for the Python sidecar and model load when some pending task needs them
+        if (loaded.stream().anyMatch(this::needsNli)) {
+            warmUpNli();
+        }
     }
 
-    private void waitForPythonHealth(int port) throws IOException, InterruptedException {
-        int retries = 20;
-        int delayMs = 500;
+    /**
+     * Stops scheduling checks, lets in-flight matcher requests drain, then stops the matcher workers
+     * and any checks still running.
+     */
+    @PreDestroy
+    public void stopObserving() {
+        scheduler.shutdownNow();
+        if (cluster != null) cluster.stop();
+        python.shutdown();
+        checks.shutdown();
+    }
 
-        while (retries-- > 0) {
-            try {
-                URL healthURL = new URL("http://localhost:" + port + "/health");
-                HttpURLConnection conn = (HttpURLConnection) healthURL.openConnection();
-                conn.setRequestMethod("GET");
-                conn.setConnectTimeout(1000);
-                conn.setReadTimeout(1000);
-                if (conn.getResponseCode() == 200) return;
-            } catch (IOException ignored) {}
-            Thread.sleep(delayMs);
+    /**
+     * Returns the matcher registered under an engine id, or empty while it is still warming up.
+     * The first request for the {@code nli} engine starts the Python workers in the background.
+     */
+    private Optional<Matcher> matcher(String engine) {
+        Matcher existing = matchers.get(engine);
+        if (existing != null) return Optional.of(existing);
+
+        if (NliMatcher.ID.equals(engine)) {
+            warmUpNli();
+        } else {
+            System.err.println("⚠️ Unknown matcher engine: " + engine);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Starts the shared Python worker pool without waiting for its model, and registers the
+     * {@code nli} matcher once the first worker is ready.
+     */
+    private synchronized void warmUpNli() {
+        if (nliStarting) return;
+        nliStarting = true;
+
+        try {
+            python.startPool(properties.getMatcher());
+        } catch (IOException e) {
+            nliStarting = false; // Try again on the next check that needs it
+            System.err.println("❌ Could not start Python matcher");
+            e.printStackTrace();
+            return;
         }
-        throw new IOException("Timed out waiting for Python matcher to become healthy on port " + port);
+
+        python.ready().thenRun(() -> {
+            matchers.put(NliMatcher.ID, new NliMatcher(python, entailmentCache, embeddingCache,
+                    properties.getMatcher().getEntailmentThreshold(), properties.getMatcher().getTopK()));
+            System.out.println("✅ Python matcher is healthy (" + python.healthyWorkers() + " worker(s))");
+            embedQueries(tasksById.values());
+        });
+    }
+
+    /**
+     * Caches the query embeddings of tasks the {@code nli} matcher will check, so their first check
+     * only embeds the page. Until the matcher is ready this is left to its ready callback.
+     */
+    private void embedQueries(Collection<Task> tasks) {
+        if (!(matchers.get(NliMatcher.ID) instanceof NliMatcher nli)) return;
+
+        List<String> queries = tasks.stream().filter(this::needsNli).map(Task::getQuery).distinct().toList();
+        if (!queries.isEmpty()) nli.embedQueries(queries);
+    }
+
+    private String engineOf(Task task) {
+        return task.getMatcher() != null ? task.getMatcher() : properties.getMatcher().getEngine();
+    }
+
+    /** Whether an observed task will need the Python matcher, i.e. its condition can't decide it. */
+    private boolean needsNli(Task task) {
+        return tasksById.containsKey(task.getId()) && !conditions.containsKey(task.getId())
+                && NliMatcher.ID.equals(engineOf(task));
     }
 
     private void register() {
         Task one = new Task("https://vedpanse.com/templates/peanuts.html", "CSK scored less than 200 runs");
         Task two = new Task("https://en.wikipedia.org/wiki/Ezra_Pound", "Erza pound wrote a 800-page poem");
         Task three = new Task("https://vedpanse.com/templates/peanuts.html", "CSK scored more than 200 runs");
-        
-        taskList.addAll(List.of(one, two, three));
-        taskList.forEach(Task::register);
+
+        List.of(one, two, three).forEach(Task::register);
         System.out.println("✅ Registered demo tasks");
     }
 
+    /**
+     * Returns the bus on which check results, failures and completions are published as they
+     * happen.
+     *
+     * @return the observer's event bus
+     */
+    public TaskEventBus getEvents() {
+        return events;
+    }
+
+    /**
+     * Stores new tasks with a single write and starts observing them right away.
+     *
+     * @param tasks the tasks to register
+     * @return the tasks that were added; duplicates of stored tasks are skipped
+     */
+    public List<Task> registerAll(Collection<Task> tasks) {
+        List<Task> added = store.addAll(tasks, false);
+        observe(added);
+        System.out.println("✅ Registered " + added.size() + " of " + tasks.size() + " task(s)");
+        return added;
+    }
+
+    /**
+     * Stops observing tasks and deletes them with a single write.
+     *
+     * @param taskIds the tasks to remove
+     * @return how many stored tasks were removed
+     */
+    public int unregisterAll(Collection<String> taskIds) {
+        taskIds.forEach(this::cancel);
+        int removed = store.removeAll(taskIds);
+        share(taskIds.stream().distinct().map(TaskChange::removed).toList());
+        return removed;
+    }
+
+    /**
+     * Stops observing a task and deletes it.
+     *
+     * @param taskId the task to remove
+     * @return whether the task was observed or stored
+     */
+    public boolean unregister(String taskId) {
+        boolean observed = cancel(taskId);
+        boolean stored = store.remove(taskId);
+        share(List.of(TaskChange.removed(taskId)));
+        return observed || stored;
+    }
+
+    /**
+     * Starts observing tasks that are already stored, e.g. registered through {@link Task#register()}
+     * while the observer was running. In cluster mode they are shared with the other nodes, since
+     * the one that owns their target may be another.
+     *
+     * @param tasks the tasks to observe; complete and already observed tasks are ignored
+     */
+    public void observe(Collection<Task> tasks) {
+        observeLocally(tasks);
+        share(tasks.stream().filter(task -> !task.isComplete()).map(TaskObserverService::added).toList());
+    }
+
+    private void observeLocally(Collection<Task> tasks) {
+        tasks.forEach(this::scheduleTask);
+        if (tasks.stream().anyMatch(this::needsNli)) {
+            warmUpNli();
+            embedQueries(tasks);
+        }
+    }
+
+    /**
+     * Stops observing a task. Once no pending task watches its target, the target's schedule is
+     * cancelled and its cached page is dropped.
+     *
+     * @param taskId the task to stop observing
+     * @return whether the task was being observed
+     */
+    public boolean cancel(String taskId) {
+        Task task = tasksById.remove(taskId);
+        if (task == null) return false;
+
+        pausedTasks.remove(taskId);
+        checkedHashes.remove(taskId);
+        conditions.remove(taskId);
+        Map<String, Task> group = tasksByTarget.get(task.getTarget());
+        if (group != null) group.remove(taskId);
+
+        System.out.println("🛑 Cancelled task: " + task.getQuery());
+        releaseIfIdle(task.getTarget());
+        return true;
+    }
+
+    /**
+     * Temporarily stops checking a task without forgetting it. A target whose tasks are all paused
+     * is not fetched at all.
+     *
+     * @param taskId the task to pause
+     * @return whether the task is being observed
+     */
+    public boolean pause(String taskId) {
+        Task task = tasksById.get(taskId);
+        if (task == null) return false;
+
+        if (pausedTasks.add(taskId)) {
+            System.out.println("⏸ Paused task: " + task.getQuery());
+            releaseIfIdle(task.getTarget());
+        }
+        return true;
+    }
+
+    /**
+     * Resumes checking a paused task.
+     *
+     * @param taskId the task to resume
+     * @return whether the task is being observed
+     */
+    public boolean resume(String taskId) {
+        Task task = tasksById.get(taskId);
+        if (task == null) return false;
+
+        if (pausedTasks.remove(taskId)) {
+            System.out.println("▶️ Resumed task: " + task.getQuery());
+            ensureScheduled(task);
+        }
+        return true;
+    }
+
+    /**
+     * Adds a task to its target's group. Each distinct target gets a single job that downloads the
+     * page once and evaluates every pending query against that copy. The timer only hands due checks
+     * to {@link CheckExecutor}, so slow pages never hold up the schedule. A new target starts at a
+     * random phase within its first interval and is re-armed after each check by {@link PollingPolicy}.
+     */
     private void scheduleTask(Task task) {
-        Runnable check = () -> {
-            System.out.println("🕵 Checking task: " + task.getId());
-            try {
-                boolean matched = sendToPythonMatcher(task.getTarget(), task.getQuery(), task.getId());
+        if (task.isComplete()) return;
+        if (tasksById.containsKey(task.getId())) return;
+
+        // Compile before the task becomes visible, so no check sees it without its condition
+        Condition.compile(task.getQuery()).ifPresent(condition -> conditions.put(task.getId(), condition));
+        if (tasksById.putIfAbsent(task.getId(), task) != null) return;
+
+        tasksByTarget.computeIfAbsent(task.getTarget(), t -> new ConcurrentHashMap<>()).put(task.getId(), task);
+        ensureScheduled(task);
+    }
+
+    private void ensureScheduled(Task task) {
+        if (cluster != null && !cluster.owns(task.getTarget())) return;
+
+        schedules.computeIfAbsent(task.getTarget(), t -> {
+            TargetSchedule schedule = new TargetSchedule(t);
+            Duration delay = polling.initialDelay(polling.baseInterval(List.of(task)));
+            // A target may have just moved here; give its previous owner time to stop first
+            if (cluster != null) delay = delay.plus(cluster.handoffDelay());
+            arm(schedule, delay);
+            return schedule;
+        });
+    }
 
-                if (matched) {
-                    System.out.println("✔ Task complete: " + task.getQuery());
-                    task.setComplete(true); // ✅ Will persist itself
-                    taskList.remove(task);  // Optional: remove from memory
+    /**
+     * Matches the schedules to a new cluster membership: starts targets this node now owns and
+     * stops the ones another node took over. Every node holds every shared task, so a target moving
+     * here or back is picked up with all of its pending tasks.
+     */
+    private void rebalance() {
+        int acquired = 0;
+        int released = 0;
+        for (String target : tasksByTarget.keySet()) {
+            boolean owned = cluster.owns(target);
+            if (!owned && schedules.containsKey(target)) {
+                schedules.computeIfPresent(target, (t, schedule) -> {
+                    cancelSchedule(schedule);
+                    return null;
+                });
+                fetcher.forget(target);
+                released++;
+            } else if (owned && !schedules.containsKey(target)) {
+                List<Task> pending = pending(target);
+                if (pending.isEmpty()) continue;
+                ensureScheduled(pending.get(0));
+                acquired++;
+            }
+        }
+        if (acquired > 0 || released > 0) {
+            System.out.println("⚖️ Rebalanced: took over " + acquired + " target(s), handed off " + released);
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor newScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Applies task changes read from the cluster's feed: stores and observes tasks registered on
+     * other nodes, and stops observing tasks completed or removed anywhere. Changes this node
+     * published come back as well, and find nothing left to do.
+     */
+    private void apply(List<TaskChange> changes) {
+        Set<String> startup = sharedAtStart;
+        List<Task> added = new ArrayList<>();
+        for (TaskChange change : changes) {
+            try {
+                switch (change.kind()) {
+                    case ADDED -> {
+                        if (startup != null) startup.add(change.id());
+                        Task task = TaskStore.taskFromJson(change.task());
+                        if (store.get(change.id()).isEmpty() && store.add(task, false)) added.add(task);
+                    }
+                    case COMPLETED -> {
+                        cancel(change.id());
+                        store.setComplete(change.id(), true);
+                    }
+                    case REMOVED -> {
+                        cancel(change.id());
+                        store.remove(change.id());
+                    }
                 }
             } catch (Exception e) {
-                System.err.println("⚠️ Error checking task: " + task.getId());
+                System.err.println("⚠️ Could not apply shared task change: " + change.kind() + " " + change.id());
                 e.printStackTrace();
             }
-        };
+        }
 
-        scheduler.scheduleAtFixedRate(check, 0, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        // Completed or removed later in the same batch
+        added.removeIf(task -> store.get(task.getId()).map(Task::isComplete).orElse(true));
+        if (!added.isEmpty()) {
+            observeLocally(added);
+            System.out.println("🔗 Picked up " + added.size() + " task(s) shared by other nodes");
+        }
     }
 
-    private boolean sendToPythonMatcher(String url, String query, String taskId) throws IOException {
-        URL endpoint = new URL("http://localhost:" + matcherPort + "/match");
-        HttpURLConnection conn = (HttpURLConnection) endpoint.openConnection();
-        conn.setRequestMethod("POST");
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setDoOutput(true);
+    private void share(List<TaskChange> changes) {
+        if (cluster != null) cluster.publish(changes);
+    }
 
-        ObjectMapper mapper = new ObjectMapper();
-        String jsonPayload = mapper.writeValueAsString(Map.of(
-                "id", taskId,
-                "url", url,
-                "query", query
-        ));
+    private static TaskChange added(Task task) {
+        return TaskChange.added(task.getId(), TaskStore.taskToJson(task));
+    }
 
-        try (OutputStream os = conn.getOutputStream()) {
-            byte[] input = jsonPayload.getBytes(StandardCharsets.UTF_8);
-            os.write(input, 0, input.length);
+    private static ClusterCoordinator createCoordinator(SentinelProperties.Cluster settings) {
+        try {
+            return ClusterCoordinator.fromSettings(settings);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open cluster membership file " + settings.getMembershipFile(), e);
         }
+    }
 
-        int status = conn.getResponseCode();
-        if (status != 200) {
-            throw new IOException("Server returned non-200 status: " + status);
+    private void arm(TargetSchedule schedule, Duration delay) {
+        synchronized (schedule) {
+            if (schedule.cancelled) return;
+            schedule.plannedAt = System.nanoTime() + delay.toNanos();
+            schedule.next = scheduler.schedule(() -> dispatch(schedule), delay.toMillis(), TimeUnit.MILLISECONDS);
         }
+    }
 
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = br.readLine()) != null) {
-                response.append(line.trim());
+    /**
+     * Hands a due target to {@link CheckExecutor} once its host may receive another request. When
+     * the host's rate limit or a {@code Retry-After} says otherwise, the target is re-armed for its
+     * reserved time instead, so waiting never holds a check slot.
+     */
+    private void dispatch(TargetSchedule schedule) {
+        if (!schedule.slotReserved) {
+            Duration wait = politeness.reserve(schedule.target);
+            if (wait.toMillis() > 0) {
+                schedule.slotReserved = true;
+                arm(schedule, wait);
+                return;
             }
-            return response.toString().contains("true");
+        }
+        schedule.slotReserved = false;
+        if (!checks.submit(schedule.target, () -> runCheck(schedule))) {
+            // A check of this target is still running, possibly one started under a schedule that a
+            // pause or rebalance has since replaced; that one won't re-arm this schedule, so do it here
+            rearm(schedule, null);
         }
     }
 
-    private List<Task> loadTasksFromFile() {
+    /**
+     * Cancels a target's schedule once none of its tasks are pending, so completed, removed or paused
+     * tasks stop costing fetches and inference immediately.
+     */
+    private void releaseIfIdle(String target) {
+        // Atomic with ensureScheduled for the same target, so a task added meanwhile is never orphaned
+        schedules.computeIfPresent(target, (t, schedule) -> {
+            if (!pending(t).isEmpty()) return schedule;
+
+            cancelSchedule(schedule);
+            System.out.println("🧹 Stopped observing " + t);
+            return null;
+        });
+
+        tasksByTarget.computeIfPresent(target, (t, group) -> group.isEmpty() ? null : group);
+        if (!tasksByTarget.containsKey(target)) {
+            fetcher.forget(target);
+        }
+    }
+
+    private static void cancelSchedule(TargetSchedule schedule) {
+        synchronized (schedule) {
+            schedule.cancelled = true;
+            if (schedule.next != null) schedule.next.cancel(false);
+        }
+    }
+
+    private List<Task> pending(String target) {
+        return tasksByTarget.getOrDefault(target, Map.of()).values().stream()
+                .filter(task -> !task.isComplete() && !pausedTasks.contains(task.getId()))
+                .toList();
+    }
+
+    private void runCheck(TargetSchedule schedule) {
+        metrics.recordSchedulerLag(System.nanoTime() - schedule.plannedAt);
+        Boolean changed = null;
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            File file = new File(FILE_NAME);
-            if (!file.exists()) return List.of();
+            changed = checkTarget(schedule);
+        } finally {
+            rearm(schedule, changed);
+        }
+    }
 
-            JsonNode root = mapper.readTree(file);
-            JsonNode array = root.get("taskList");
-            if (array == null || !array.isArray()) return List.of();
+    /**
+     * Arms a target's next check, or releases it once nothing is pending.
+     *
+     * @param changed whether the last check saw new content, or null to keep the backoff as it is
+     */
+    private void rearm(TargetSchedule schedule, Boolean changed) {
+        List<Task> pending = pending(schedule.target);
+        if (pending.isEmpty()) {
+            releaseIfIdle(schedule.target);
+            return;
+        }
+        Duration base = polling.baseInterval(pending);
+        if (changed != null) {
+            schedule.backoff = polling.adjust(schedule.backoff, changed, base);
+        }
+        arm(schedule, polling.nextDelay(base, schedule.backoff));
+    }
+
+    /**
+     * Fetches a target once and evaluates its pending tasks.
+     *
+     * @return whether the page content changed since the previous check, or {@code null} when there
+     *         is nothing to compare: on the first successful fetch, or when the check didn't get the
+     *         page at all, so failures never stretch the polling interval
+     */
+    private Boolean checkTarget(TargetSchedule schedule) {
+        String target = schedule.target;
+        List<Task> pending = pending(target);
+        if (pending.isEmpty()) return null;
+        // Our lease lapsed, so another node may own this target now; skip until it is renewed
+        if (cluster != null && !cluster.owns(target)) return null;
+
+        // Tasks whose matcher is still warming up wait for a later check, with the full page
+        List<Task> deferred = pending.stream()
+                .filter(task -> !conditions.containsKey(task.getId()) && matcher(engineOf(task)).isEmpty())
+                .toList();
+        if (!deferred.isEmpty()) {
+            System.out.println("⏳ Matcher not ready, deferring " + deferred.size() + " task(s) on " + target);
+            pending = pending.stream().filter(task -> !deferred.contains(task)).toList();
+            if (pending.isEmpty()) return null;
+        }
+
+        System.out.println("🌐 Fetching " + target + " for " + pending.size() + " task(s)");
+        Set<String> sections = pending.stream().map(this::sectionOf).collect(Collectors.toSet());
+        Page page;
+        try {
+            page = fetcher.fetch(target, sections);
+        } catch (PageFetcher.ThrottledException e) {
+            System.err.println("🐢 " + e.getMessage());
+            metrics.countChecks("throttled", pending.size());
+            pending.forEach(task -> events.publish(TaskEvent.failed(task)));
+            return null;
+        } catch (Exception e) {
+            System.err.println("⚠️ Error fetching target: " + target);
+            e.printStackTrace();
+            metrics.countChecks("error", pending.size());
+            pending.forEach(task -> events.publish(TaskEvent.failed(task)));
+            return null;
+        }
+
+        Boolean contentChanged = contentChanged(schedule.lastHashes, page);
+        Map<String, String> hashes = new HashMap<>();
+        page.sections().forEach((key, section) -> hashes.put(key, section.hash()));
+        schedule.lastHashes = hashes;
+
+        // Skip tasks already evaluated against exactly this content of their region (304 or identical text)
+        List<Task> changed = pending.stream()
+                .filter(task -> !sectionHash(page, task).equals(checkedHash(task)))
+                .toList();
+        metrics.countChecks("skipped", pending.size() - changed.size());
+        if (changed.isEmpty()) {
+            System.out.println("💤 Unchanged, skipping " + target);
+            return contentChanged;
+        }
+
+        Map<String, Boolean> results = new HashMap<>();
+        Map<String, SeenSection> seen = new HashMap<>();
+        Map<String, List<Task>> bySection = changed.stream().collect(Collectors.groupingBy(this::sectionOf));
+        for (Map.Entry<String, List<Task>> entry : bySection.entrySet()) {
+            String key = entry.getKey();
+            seen.put(key, checkSection(target, key, page.section(key), schedule.seen.get(key), entry.getValue(), results));
+        }
+        // Regions whose tasks were all skipped keep what was seen of them
+        schedule.seen.forEach((key, section) -> {
+            if (sections.contains(key)) seen.putIfAbsent(key, section);
+        });
+        schedule.seen = seen;
+
+        for (Task task : changed) {
+            if (!results.containsKey(task.getId())) { // Matcher failed; retry next check
+                events.publish(TaskEvent.failed(task));
+                continue;
+            }
+            checkedHashes.put(task.getId(), new Checked(task.getQuery(), sectionOf(task), sectionHash(page, task)));
+
+            boolean matched = results.get(task.getId());
+            metrics.countChecks(matched ? "matched" : "unmatched", 1);
+            events.publish(TaskEvent.checked(task, matched));
+            if (matched) {
+                System.out.println("✔ Task complete: " + task.getQuery());
+                store.setComplete(task.getId(), true);
+                task.markComplete();
+                cancel(task.getId());
+                share(List.of(TaskChange.completed(task.getId())));
+                events.publish(TaskEvent.completed(task));
+            }
+        }
+        return contentChanged;
+    }
 
-            return mapper.readerForListOf(Task.class).readValue(array);
+    /**
+     * Evaluates the tasks scoped to one region of a fetched page.
+     *
+     * @param previous what the last check saw of the region, or null
+     * @return what this check saw of the region, for the next check
+     */
+    private SeenSection checkSection(String target, String key, Page.Section section, SeenSection previous,
+                                     List<Task> tasks, Map<String, Boolean> results) {
+        String region = Page.WHOLE_PAGE.equals(key) ? target : target + " " + key;
+
+        // Every query is decided per sentence, so a task that already saw the previous version of
+        // the region only needs the sentences that are new since then
+        List<String> sentences = new ArrayList<>();
+        List<String> added = new ArrayList<>();
+        Set<String> hashes = new HashSet<>();
+        for (String sentence : section.sentences()) {
+            String hash = Sentences.hash(sentence);
+            if (!hashes.add(hash)) continue;
+            sentences.add(sentence);
+            if (previous == null || !previous.sentenceHashes().contains(hash)) added.add(sentence);
+        }
+        String previousHash = previous != null ? previous.hash() : null;
+
+        // Compiled conditions are decided here against the whole region and never reach a matcher
+        int decided = 0;
+        List<Task> undecided = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            Condition condition = conditions.get(task.getId());
+            if (condition != null) {
+                results.put(task.getId(), condition.test(sentences));
+                decided++;
+            } else {
+                undecided.add(task);
+            }
+        }
+        metrics.countConditionChecks(decided);
+
+        Map<Boolean, List<Task>> incremental = undecided.stream()
+                .collect(Collectors.partitioningBy(task -> previousHash != null && previousHash.equals(checkedHash(task))));
+        if (!incremental.get(true).isEmpty()) {
+            System.out.println("🧩 " + added.size() + " of " + sentences.size() + " sentence(s) changed on " + region);
+        }
+
+        System.out.println("🕵 Checking " + tasks.size() + " task(s) on " + region
+                + (decided == 0 ? "" : " (" + decided + " decided without a model)"));
+        evaluate(target, sentences, incremental.get(false), results);
+        evaluate(target, added, incremental.get(true), results);
+        return new SeenSection(section.hash(), hashes);
+    }
+
+    /**
+     * Compares only the regions both checks fetched, so a task adding or dropping a selector doesn't
+     * read as a change of the page.
+     *
+     * @return whether any region fetched both times changed, or null when there is nothing to compare
+     */
+    private static Boolean contentChanged(Map<String, String> previous, Page page) {
+        if (previous == null) return null;
+        Boolean changed = null;
+        for (Map.Entry<String, Page.Section> entry : page.sections().entrySet()) {
+            String before = previous.get(entry.getKey());
+            if (before == null) continue;
+            if (!before.equals(entry.getValue().hash())) return true;
+            changed = false;
+        }
+        return changed;
+    }
+
+    /** Section of the page a task reads: its selector, or the whole page. */
+    private String sectionOf(Task task) {
+        return task.getSelector() != null && !task.getSelector().isBlank() ? task.getSelector() : Page.WHOLE_PAGE;
+    }
+
+    /**
+     * @return the hash of the region content a task was last evaluated against, or null when it has
+     *         not been, or has since changed its query or selector and must see the region in full
+     */
+    private String checkedHash(Task task) {
+        Checked checked = checkedHashes.get(task.getId());
+        if (checked == null || !checked.query().equals(task.getQuery()) || !checked.section().equals(sectionOf(task))) {
+            return null;
+        }
+        return checked.hash();
+    }
+
+    private String sectionHash(Page page, Task task) {
+        return page.section(sectionOf(task)).hash();
+    }
+
+    /**
+     * Runs each task's matcher over the given sentences and collects the verdicts. Tasks whose
+     * matcher fails are left out of {@code results}, so they are evaluated in full next time.
+     */
+    private void evaluate(String target, List<String> sentences, List<Task> tasks, Map<String, Boolean> results) {
+        if (tasks.isEmpty()) return;
+        if (sentences.isEmpty()) {
+            // Nothing new to match against, so nothing can have started matching
+            tasks.forEach(task -> results.put(task.getId(), false));
+            return;
+        }
+
+        Map<String, List<Task>> byEngine = tasks.stream().collect(Collectors.groupingBy(this::engineOf));
+        for (Map.Entry<String, List<Task>> entry : byEngine.entrySet()) {
+            try {
+                results.putAll(matcher(entry.getKey()).orElseThrow().match(target, sentences, entry.getValue()).join());
+            } catch (Exception e) {
+                System.err.println("⚠️ Error checking target: " + target + " with " + entry.getKey() + " matcher");
+                e.printStackTrace();
+                metrics.countChecks("error", entry.getValue().size());
+            }
+        }
+    }
+
+    /** Registers a matcher under an engine id, replacing any built-in one. For tests. */
+    void putMatcher(String engine, Matcher matcher) {
+        matchers.put(engine, matcher);
+    }
+
+    /**
+     * Checks a scheduled target right away on the calling thread, leaving its timer alone. For tests.
+     *
+     * @return what the check returns, or null when the target isn't scheduled
+     */
+    Boolean checkNow(String target) {
+        TargetSchedule schedule = schedules.get(target);
+        return schedule != null ? checkTarget(schedule) : null;
+    }
+
+    /** @return the handle of a target's next check, or null when it isn't scheduled. For tests. */
+    ScheduledFuture<?> nextCheck(String target) {
+        TargetSchedule schedule = schedules.get(target);
+        if (schedule == null) return null;
+        synchronized (schedule) {
+            return schedule.next;
+        }
+    }
+
+    /** @return how many checks the timer holds, across all targets. For tests. */
+    int armedChecks() {
+        return scheduler.getQueue().size();
+    }
+
+    private List<Task> loadTasksFromFile() {
+        try {
+            return store.getTasks();
         } catch (Exception e) {
             e.printStackTrace();
             return List.of();
@@ -0,0 +1,16 @@
+package com.sentinel.sentinel.store;
+
+/**
+ * How hard the {@link TaskStore} works to get log writes onto disk before reporting them done.
+ */
+public enum FsyncPolicy {
+
+    /** Writes are flushed to the operating system but never forced to disk. Fastest; a power loss can lose recent updates. */
+    NEVER,
+
+    /** Each group of writes is forced to disk by the writer thread, but callers don't wait for it. */
+    BATCH,
+
+    /** Callers wait until their write has been forced to disk. Concurrent writes share one fsync. */
+    ALWAYS
+}
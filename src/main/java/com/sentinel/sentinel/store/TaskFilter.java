@@ -0,0 +1,30 @@
+package com.sentinel.sentinel.store;
+
+import java.util.Locale;
+
+/**
+ * Criteria for listing tasks. A null criterion matches everything.
+ *
+ * @param complete only tasks with this completion state
+ * @param target only tasks observing exactly this URL
+ * @param query only tasks whose query contains this text, ignoring case
+ */
+public record TaskFilter(Boolean complete, String target, String query) {
+
+    /** Matches every task. */
+    public static final TaskFilter ALL = new TaskFilter(null, null, null);
+
+    public TaskFilter {
+        query = query == null || query.isEmpty() ? null : query.toLowerCase(Locale.ROOT);
+        target = target == null || target.isEmpty() ? null : target;
+    }
+
+    /**
+     * @return whether a task with the given fields satisfies every criterion
+     */
+    public boolean matches(String target, String query, boolean complete) {
+        return (this.complete == null || this.complete == complete)
+                && (this.target == null || this.target.equals(target))
+                && (this.query == null || (query != null && query.toLowerCase(Locale.ROOT).contains(this.query)));
+    }
+}
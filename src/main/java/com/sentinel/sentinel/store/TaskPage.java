@@ -0,0 +1,14 @@
+package com.sentinel.sentinel.store;
+
+import com.sentinel.sentinel.Task;
+
+import java.util.List;
+
+/**
+ * One page of a task listing.
+ *
+ * @param tasks the tasks on this page, in insertion order
+ * @param nextCursor pass to {@link TaskStore#list} to fetch the following page, or null on the last page
+ * @param version the store version the page was read at, see {@link TaskStore#version()}
+ */
+public record TaskPage(List<Task> tasks, String nextCursor, long version) {}
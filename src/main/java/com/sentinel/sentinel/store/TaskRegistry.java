@@ -0,0 +1,587 @@
+package com.sentinel.sentinel.store;
+
+import com.sentinel.sentinel.Task;
+import com.sentinel.sentinel.matcher.Matcher;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * The {@link TaskStore}'s in-memory index, laid out as parallel primitive arrays.
+ *
+ * <p>Each task gets an int handle into columns of ids, targets, queries and settings. UUID ids are
+ * packed into two longs, targets are interned into a shared table, matcher names into a byte, and
+ * completion lives in a {@link BitSet}. Lookups by id and by (target, query) go through
+ * open-addressing tables of handles, so a task with a UUID id costs a few dozen bytes plus its query
+ * text and boxes nothing. Other ids are kept as strings in a column of their own and found through a
+ * map from id to boxed handle, as are the interned targets. Handles are handed out in insertion
+ * order; the slots of removed tasks are reclaimed by rebuilding the columns once they make up most of
+ * the arrays.
+ *
+ * <p>Writers are serialized by the caller and take the write lock. Readers don't lock at all: they
+ * read optimistically and retry under the read lock only if a write raced with them.
+ */
+final class TaskRegistry {
+
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Dead handles tolerated before the columns are rebuilt. */
+    private static final int RECLAIM_THRESHOLD = 1024;
+
+    private final StampedLock lock = new StampedLock();
+
+    // Columns, indexed by handle
+    private long[] idHigh = new long[INITIAL_CAPACITY];
+    private long[] idLow = new long[INITIAL_CAPACITY];
+    private int[] targets = new int[INITIAL_CAPACITY];
+    private String[] queries = new String[INITIAL_CAPACITY];
+    private int[] intervals = new int[INITIAL_CAPACITY];
+    private int[] topKs = new int[INITIAL_CAPACITY];
+    private String[] selectors = new String[INITIAL_CAPACITY];
+    private byte[] matchers = new byte[INITIAL_CAPACITY];
+    /** Ids that aren't a canonical UUID and so aren't packed into {@link #idHigh}/{@link #idLow}; null otherwise. */
+    private String[] irregularIds = new String[INITIAL_CAPACITY];
+    private long[] positions = new long[INITIAL_CAPACITY];
+    /** Next handle with the same (target, query), in insertion order. */
+    private int[] nextSameKey = new int[INITIAL_CAPACITY];
+    private BitSet live = new BitSet();
+    private BitSet complete = new BitSet();
+    private int handles;
+
+    private final HandleTable byId = new HandleTable(h -> idHash(idHigh[h], idLow[h]));
+    private final HandleTable byKey = new HandleTable(h -> keyHash(targets[h], queries[h]));
+    private final Map<String, Integer> irregularHandles = new ConcurrentHashMap<>();
+
+    // Interned targets, with a count of the tasks using each so unused slots can be reused
+    private final Map<String, Integer> targetIndex = new ConcurrentHashMap<>();
+    private String[] targetNames = new String[INITIAL_CAPACITY];
+    private int[] targetRefs = new int[INITIAL_CAPACITY];
+    private final Deque<Integer> freeTargets = new ArrayDeque<>();
+    private int targetCount;
+
+    private long nextPosition;
+    private volatile int size;
+    private volatile long version;
+
+    /**
+     * Adds a task, or replaces the stored fields of a task with the same id. A replaced task keeps
+     * its place in insertion order.
+     *
+     * @throws IllegalArgumentException if the task names a matcher that isn't in {@link Matcher#ENGINES};
+     *                                  nothing is changed then
+     */
+    void put(Task task) {
+        byte matcher = matcherCode(task.getMatcher());
+        long stamp = lock.writeLock();
+        try {
+            int handle = handleOf(task.getId());
+            int target = internTarget(task.getTarget());
+            if (handle == NONE) {
+                handle = allocate(task.getId());
+                positions[handle] = ++nextPosition;
+            } else {
+                unlinkKey(handle);
+                releaseTarget(targets[handle]);
+            }
+            targets[handle] = target;
+            queries[handle] = task.getQuery();
+            intervals[handle] = task.getIntervalSeconds();
+            topKs[handle] = task.getTopK();
+            selectors[handle] = task.getSelector() == null ? null : task.getSelector().intern();
+            matchers[handle] = matcher;
+            complete.set(handle, task.isComplete());
+            linkKey(handle);
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the previous completion state, or null if no task has that id
+     */
+    Boolean setComplete(String id, boolean value) {
+        long stamp = lock.writeLock();
+        try {
+            int handle = handleOf(id);
+            if (handle == NONE) return null;
+            boolean previous = complete.get(handle);
+            if (previous != value) {
+                complete.set(handle, value);
+                version++;
+            }
+            return previous;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return whether a task was removed
+     */
+    boolean remove(String id) {
+        long stamp = lock.writeLock();
+        try {
+            int handle = handleOf(id);
+            if (handle == NONE) return false;
+
+            unlinkKey(handle);
+            releaseTarget(targets[handle]);
+            if (irregularIds[handle] != null) {
+                irregularHandles.remove(irregularIds[handle]);
+                irregularIds[handle] = null;
+            } else {
+                byId.delete(handle);
+            }
+            queries[handle] = null;
+            live.clear(handle);
+            size--;
+            version++;
+
+            if (handles - size > Math.max(RECLAIM_THRESHOLD, size)) {
+                reclaim();
+            }
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    boolean contains(String id) {
+        return read(() -> handleOf(id) != NONE);
+    }
+
+    /**
+     * @return the task with that id, or null
+     */
+    Task get(String id) {
+        return read(() -> {
+            int handle = handleOf(id);
+            return handle == NONE ? null : toTask(handle);
+        });
+    }
+
+    /**
+     * @return the id of the first task with these fields, or null
+     */
+    String findId(String target, String query, boolean isComplete) {
+        return read(() -> {
+            int bound = handles;
+            for (int h = firstWithKey(target, query); h != NONE && bound-- > 0; h = nextSameKey[h]) {
+                if (complete.get(h) == isComplete) return idOf(h);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * @return every task, in insertion order
+     */
+    List<Task> all() {
+        return read(() -> {
+            List<Task> tasks = new ArrayList<>(size);
+            for (int h = live.nextSetBit(0); h >= 0 && h < handles; h = live.nextSetBit(h + 1)) {
+                tasks.add(toTask(h));
+            }
+            return tasks;
+        });
+    }
+
+    /**
+     * Lists tasks positioned after {@code after}, in insertion order.
+     */
+    TaskPage list(TaskFilter filter, long after, int limit) {
+        return read(() -> {
+            List<Task> tasks = new ArrayList<>(Math.min(limit, size));
+            long last = after;
+            int start = firstAfter(after);
+            for (int h = live.nextSetBit(start); h >= 0 && h < handles; h = live.nextSetBit(h + 1)) {
+                if (!filter.matches(targetNames[targets[h]], queries[h], complete.get(h))) continue;
+                if (tasks.size() == limit) {
+                    return new TaskPage(tasks, Long.toString(last), version);
+                }
+                tasks.add(toTask(h));
+                last = positions[h];
+            }
+            return new TaskPage(tasks, null, version);
+        });
+    }
+
+    long version() {
+        return version;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Runs a read without locking, and again under the read lock if a writer interfered. A racing
+     * writer can leave the arrays briefly inconsistent, so anything the optimistic attempt throws is
+     * treated the same as a failed validation.
+     */
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) return result;
+            } catch (RuntimeException e) {
+                // Raced with a writer; fall through
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Task toTask(int handle) {
+        Task task = new Task(idOf(handle), targetNames[targets[handle]], queries[handle], complete.get(handle));
+        task.setIntervalSeconds(intervals[handle]);
+        task.setTopK(topKs[handle]);
+        task.setSelector(selectors[handle]);
+        int matcher = matchers[handle] & 0xFF;
+        task.setMatcher(matcher == 0 ? null : Matcher.ENGINES.get(matcher - 1));
+        return task;
+    }
+
+    // --- Ids ---
+
+    private int handleOf(String id) {
+        if (!isCanonicalUuid(id)) {
+            Integer handle = irregularHandles.get(id);
+            return handle == null ? NONE : handle;
+        }
+        long high = parseHex(id, 0);
+        long low = parseHex(id, 19);
+        return byId.find(idHash(high, low), h -> idHigh[h] == high && idLow[h] == low);
+    }
+
+    private String idOf(int handle) {
+        String irregularId = irregularIds[handle];
+        return irregularId != null ? irregularId : new UUID(idHigh[handle], idLow[handle]).toString();
+    }
+
+    private int allocate(String id) {
+        if (handles == idHigh.length) {
+            resize(handles * 2);
+        }
+        int handle = handles++;
+        if (isCanonicalUuid(id)) {
+            idHigh[handle] = parseHex(id, 0);
+            idLow[handle] = parseHex(id, 19);
+            irregularIds[handle] = null;
+            byId.insert(handle);
+        } else {
+            irregularIds[handle] = id;
+            irregularHandles.put(id, handle);
+        }
+        live.set(handle);
+        size++;
+        return handle;
+    }
+
+    /** Whether the id is exactly what {@link UUID#toString()} produces, so it survives packing. */
+    private static boolean isCanonicalUuid(String id) {
+        if (id.length() != 36) return false;
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') return false;
+            } else if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Reads the 16 hex digits of one half of a canonical UUID, skipping its dashes. */
+    private static long parseHex(String id, int from) {
+        long value = 0;
+        for (int i = from, digits = 0; digits < 16; i++) {
+            char c = id.charAt(i);
+            if (c == '-') continue;
+            value = (value << 4) | Character.digit(c, 16);
+            digits++;
+        }
+        return value;
+    }
+
+    private static int idHash(long high, long low) {
+        return mix(Long.hashCode(high * 0x9E3779B97F4A7C15L ^ low));
+    }
+
+    // --- (target, query) chains ---
+
+    private static int keyHash(int target, String query) {
+        return mix(target * 31 + query.hashCode());
+    }
+
+    private int firstWithKey(String target, String query) {
+        Integer index = targetIndex.get(target);
+        if (index == null) return NONE;
+        int t = index;
+        return byKey.find(keyHash(t, query), h -> targets[h] == t && query.equals(queries[h]));
+    }
+
+    private void linkKey(int handle) {
+        nextSameKey[handle] = NONE;
+        int t = targets[handle];
+        String query = queries[handle];
+        int head = byKey.find(keyHash(t, query), h -> targets[h] == t && query.equals(queries[h]));
+        if (head == NONE) {
+            byKey.insert(handle);
+            return;
+        }
+        queries[handle] = queries[head]; // Duplicates share one copy of the query text
+        int tail = head;
+        while (nextSameKey[tail] != NONE) tail = nextSameKey[tail];
+        nextSameKey[tail] = handle;
+    }
+
+    private void unlinkKey(int handle) {
+        int t = targets[handle];
+        String query = queries[handle];
+        int head = byKey.find(keyHash(t, query), h -> targets[h] == t && query.equals(queries[h]));
+        if (head == handle) {
+            if (nextSameKey[handle] == NONE) {
+                byKey.delete(handle);
+            } else {
+                byKey.replace(handle, nextSameKey[handle]);
+            }
+            return;
+        }
+        for (int h = head; h != NONE; h = nextSameKey[h]) {
+            if (nextSameKey[h] == handle) {
+                nextSameKey[h] = nextSameKey[handle];
+                return;
+            }
+        }
+    }
+
+    // --- Interning ---
+
+    private int internTarget(String target) {
+        Integer existing = targetIndex.get(target);
+        int index;
+        if (existing != null) {
+            index = existing;
+        } else {
+            if (!freeTargets.isEmpty()) {
+                index = freeTargets.pop();
+            } else {
+                if (targetCount == targetNames.length) {
+                    targetNames = Arrays.copyOf(targetNames, targetCount * 2);
+                    targetRefs = Arrays.copyOf(targetRefs, targetCount * 2);
+                }
+                index = targetCount++;
+            }
+            targetNames[index] = target;
+            targetIndex.put(target, index);
+        }
+        targetRefs[index]++;
+        return index;
+    }
+
+    private void releaseTarget(int index) {
+        if (--targetRefs[index] > 0) return;
+        targetIndex.remove(targetNames[index]);
+        targetNames[index] = null;
+        freeTargets.push(index);
+    }
+
+    /** Index into {@link Matcher#ENGINES} plus one; code 0 is the default engine. */
+    private static byte matcherCode(String matcher) {
+        if (matcher == null) return 0;
+        int index = Matcher.ENGINES.indexOf(matcher);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown matcher engine: " + matcher);
+        }
+        return (byte) (index + 1);
+    }
+
+    // --- Storage ---
+
+    private void resize(int capacity) {
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        targets = Arrays.copyOf(targets, capacity);
+        queries = Arrays.copyOf(queries, capacity);
+        intervals = Arrays.copyOf(intervals, capacity);
+        topKs = Arrays.copyOf(topKs, capacity);
+        selectors = Arrays.copyOf(selectors, capacity);
+        matchers = Arrays.copyOf(matchers, capacity);
+        irregularIds = Arrays.copyOf(irregularIds, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        nextSameKey = Arrays.copyOf(nextSameKey, capacity);
+    }
+
+    /**
+     * Moves live tasks down over the slots of removed ones, keeping their order and positions, and
+     * rebuilds the lookup tables. Readers work on the old arrays until they validate.
+     */
+    private void reclaim() {
+        int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, size) * 2 - 1) * 2);
+        long[] newHigh = new long[capacity];
+        long[] newLow = new long[capacity];
+        int[] newTargets = new int[capacity];
+        String[] newQueries = new String[capacity];
+        int[] newIntervals = new int[capacity];
+        int[] newTopKs = new int[capacity];
+        String[] newSelectors = new String[capacity];
+        byte[] newMatchers = new byte[capacity];
+        String[] newIrregularIds = new String[capacity];
+        long[] newPositions = new long[capacity];
+        BitSet newLive = new BitSet();
+        BitSet newComplete = new BitSet();
+
+        int to = 0;
+        for (int from = live.nextSetBit(0); from >= 0 && from < handles; from = live.nextSetBit(from + 1), to++) {
+            newHigh[to] = idHigh[from];
+            newLow[to] = idLow[from];
+            newTargets[to] = targets[from];
+            newQueries[to] = queries[from];
+            newIntervals[to] = intervals[from];
+            newTopKs[to] = topKs[from];
+            newSelectors[to] = selectors[from];
+            newMatchers[to] = matchers[from];
+            newPositions[to] = positions[from];
+            newLive.set(to);
+            newComplete.set(to, complete.get(from));
+            if (irregularIds[from] != null) {
+                newIrregularIds[to] = irregularIds[from];
+                irregularHandles.put(irregularIds[from], to);
+            }
+        }
+
+        idHigh = newHigh;
+        idLow = newLow;
+        targets = newTargets;
+        queries = newQueries;
+        intervals = newIntervals;
+        topKs = newTopKs;
+        selectors = newSelectors;
+        matchers = newMatchers;
+        positions = newPositions;
+        nextSameKey = new int[capacity];
+        live = newLive;
+        complete = newComplete;
+        irregularIds = newIrregularIds;
+        handles = to;
+
+        byId.clear();
+        byKey.clear();
+        for (int h = 0; h < handles; h++) {
+            if (irregularIds[h] == null) byId.insert(h);
+            linkKey(h);
+        }
+    }
+
+    /** First handle positioned after the given position; positions grow with handles. */
+    private int firstAfter(long after) {
+        int low = 0;
+        int high = handles;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (positions[mid] <= after) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        return hash ^ (hash >>> 13);
+    }
+
+    /**
+     * Open-addressing hash table of handles with linear probing. Slots hold {@code handle + 1}, so
+     * zero means empty. The table is kept at most half full.
+     */
+    private static final class HandleTable {
+        private final IntUnaryOperator hashOf;
+        private int[] slots = new int[INITIAL_CAPACITY * 2];
+        private int used;
+
+        HandleTable(IntUnaryOperator hashOf) {
+            this.hashOf = hashOf;
+        }
+
+        int find(int hash, IntPredicate matches) {
+            int[] table = slots;
+            int mask = table.length - 1;
+            for (int i = hash & mask, probes = 0; table[i] != 0 && probes < table.length; i = (i + 1) & mask, probes++) {
+                int handle = table[i] - 1;
+                if (matches.test(handle)) return handle;
+            }
+            return NONE;
+        }
+
+        void insert(int handle) {
+            if ((used + 1) * 2 > slots.length) {
+                rehash(slots.length * 2);
+            }
+            place(slots, handle);
+            used++;
+        }
+
+        /** Puts {@code replacement} in the slot of {@code handle}; both must hash alike. */
+        void replace(int handle, int replacement) {
+            slots[slotOf(handle)] = replacement + 1;
+        }
+
+        void delete(int handle) {
+            int[] table = slots;
+            int mask = table.length - 1;
+            int hole = slotOf(handle);
+            table[hole] = 0;
+            used--;
+
+            // Shift later entries of the probe run back so lookups never stop early at the hole
+            for (int i = (hole + 1) & mask; table[i] != 0; i = (i + 1) & mask) {
+                int home = hashOf.applyAsInt(table[i] - 1) & mask;
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    table[hole] = table[i];
+                    table[i] = 0;
+                    hole = i;
+                }
+            }
+        }
+
+        void clear() {
+            slots = new int[INITIAL_CAPACITY * 2];
+            used = 0;
+        }
+
+        private int slotOf(int handle) {
+            int mask = slots.length - 1;
+            int i = hashOf.applyAsInt(handle) & mask;
+            while (slots[i] != handle + 1) i = (i + 1) & mask;
+            return i;
+        }
+
+        private void place(int[] table, int handle) {
+            int mask = table.length - 1;
+            int i = hashOf.applyAsInt(handle) & mask;
+            while (table[i] != 0) i = (i + 1) & mask;
+            table[i] = handle + 1;
+        }
+
+        private void rehash(int capacity) {
+            int[] table = new int[capacity];
+            for (int slot : slots) {
+                if (slot != 0) place(table, slot - 1);
+            }
+            slots = table;
+        }
+    }
+}
@@ -0,0 +1,601 @@
+package com.sentinel.sentinel.store;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sentinel.sentinel.SentinelMetrics;
+import com.sentinel.sentinel.Task;
+import com.sentinel.sentinel.matcher.Matcher;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Indexed, append-only persistence for {@link Task} records.
+ *
+ * <p>State is kept in two files: a compacted snapshot ({@code .task_log.json}, using the same
+ * {@code {"taskList": [...]}} layout the project has always written) and a write-ahead log
+ * ({@code .task_log.wal}) holding one JSON operation per line. A mutation appends a single line
+ * to the log instead of rewriting the snapshot, and the log is folded back into the snapshot once
+ * it holds more entries than the store holds tasks (with a floor of {@link #COMPACTION_THRESHOLD}),
+ * which keeps single-task updates at O(1) amortized I/O.
+ *
+ * <p>All tasks are indexed in memory by a compact {@link TaskRegistry}: by id, by (target, query) and
+ * by insertion position, which backs cursor pagination in {@link #list}. Reads never wait for the
+ * store's lock. Every mutation bumps {@link #version()}, so readers can tell cheaply whether
+ * anything changed. Existing task logs need no conversion: on first start the old file is simply
+ * read as the initial snapshot.
+ *
+ * <p>The store is the only writer of these files. Mutations update memory and hand their log lines
+ * to a single writer thread, which commits whatever has queued up with one write and one fsync;
+ * see {@link FsyncPolicy} for when callers wait for that. Snapshots are written to a temporary file
+ * and atomically renamed into place.
+ */
+public class TaskStore {
+
+    /** The snapshot file used by the default store. */
+    public static final String DEFAULT_FILE_NAME = ".task_log.json";
+
+    /** Minimum number of log entries before a compaction is considered. */
+    public static final int COMPACTION_THRESHOLD = 1024;
+
+    private static final String TASK_LIST = "taskList";
+    private static final String OP_PUT = "put";
+    private static final String OP_COMPLETE = "complete";
+    private static final String OP_REMOVE = "remove";
+
+    private static TaskStore defaultStore;
+    private static FsyncPolicy defaultFsyncPolicy = FsyncPolicy.BATCH;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final SentinelMetrics metrics = SentinelMetrics.global();
+    private final File snapshotFile;
+    private final File walFile;
+
+    private final TaskRegistry registry = new TaskRegistry();
+    /** Whether neither the snapshot nor the log existed when the store was opened. */
+    private final boolean created;
+
+    private final WriteAheadLog wal;
+    /** Tells this opening of the store apart from earlier ones, whose versions counted from scratch. */
+    private final String epoch = Long.toHexString(new Random().nextLong());
+    private boolean closed;
+    private int walEntries;
+
+    /** The fields that make two tasks duplicates of each other. */
+    private record DuplicateKey(String target, String query, boolean complete) {}
+
+    /**
+     * Opens (or creates) a store backed by the given snapshot file, forcing log writes to disk in
+     * batches. See {@link #TaskStore(File, FsyncPolicy)}.
+     *
+     * @param snapshotFile the compacted task log, e.g. {@code .task_log.json}
+     */
+    public TaskStore(File snapshotFile) {
+        this(snapshotFile, FsyncPolicy.BATCH);
+    }
+
+    /**
+     * Opens (or creates) a store backed by the given snapshot file. The write-ahead log lives
+     * next to it with a {@code .wal} extension. Any log left over from a previous run is replayed.
+     *
+     * @param snapshotFile the compacted task log, e.g. {@code .task_log.json}
+     * @param fsyncPolicy when log writes are forced to disk
+     * @throws UncheckedIOException if the snapshot or log cannot be read, or the log is locked by
+     *                              another process
+     */
+    public TaskStore(File snapshotFile, FsyncPolicy fsyncPolicy) {
+        this.snapshotFile = snapshotFile;
+        this.walFile = walFileFor(snapshotFile);
+        this.created = !snapshotFile.exists() && !walFile.exists();
+
+        try {
+            loadSnapshot();
+            replayLog();
+            wal = new WriteAheadLog(walFile, fsyncPolicy);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open task store at " + snapshotFile, e);
+        }
+    }
+
+    /**
+     * Returns the process-wide store. Unless a container opened it with {@link #openDefault}, this
+     * opens {@link #DEFAULT_FILE_NAME} in the working directory for the standalone SDK, and compacts
+     * and closes it on JVM shutdown.
+     *
+     * @return the shared task store
+     */
+    public static synchronized TaskStore getDefault() {
+        if (defaultStore == null) {
+            TaskStore store = new TaskStore(new File(DEFAULT_FILE_NAME), defaultFsyncPolicy);
+            Runtime.getRuntime().addShutdownHook(new Thread(store::close));
+            defaultStore = store;
+        }
+        return defaultStore;
+    }
+
+    /**
+     * Opens the process-wide store for a container that closes it, such as the Spring context. No
+     * shutdown hook is registered: {@link #close()} releases the log and clears the default, so a
+     * restarted context in the same JVM can open it again.
+     *
+     * @param snapshotFile the compacted task log, e.g. {@code .task_log.json}
+     * @param fsyncPolicy when log writes are forced to disk
+     * @return the store, now returned by {@link #getDefault()} until it is closed
+     * @throws IllegalStateException if a default store is already open
+     */
+    public static synchronized TaskStore openDefault(File snapshotFile, FsyncPolicy fsyncPolicy) {
+        if (defaultStore != null) {
+            throw new IllegalStateException("The default task store is already open at " + defaultStore.snapshotFile);
+        }
+        defaultFsyncPolicy = fsyncPolicy;
+        defaultStore = new TaskStore(snapshotFile, fsyncPolicy);
+        return defaultStore;
+    }
+
+    /**
+     * Sets the fsync policy of the default store, whether or not it has been opened yet.
+     *
+     * @param fsyncPolicy when log writes are forced to disk
+     */
+    public static synchronized void configureDefault(FsyncPolicy fsyncPolicy) {
+        defaultFsyncPolicy = fsyncPolicy;
+        if (defaultStore != null) {
+            defaultStore.setFsyncPolicy(fsyncPolicy);
+        }
+    }
+
+    /**
+     * @return when log writes are forced to disk
+     */
+    public FsyncPolicy getFsyncPolicy() {
+        return wal.policy();
+    }
+
+    /**
+     * Changes when log writes are forced to disk. Takes effect with the next group of writes.
+     *
+     * @param fsyncPolicy the new policy
+     */
+    public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        wal.setPolicy(fsyncPolicy);
+    }
+
+    /**
+     * Adds a task to the store.
+     *
+     * @param task the task to persist
+     * @param force if false, the task is skipped when another task with the same target, query
+     *              and completion state already exists
+     * @return whether the task was added
+     * @throws IllegalArgumentException if the task names an unknown matcher engine
+     */
+    public boolean add(Task task, boolean force) {
+        checkMatcher(task);
+        CompletableFuture<Void> written;
+        synchronized (this) {
+            if (!force && registry.findId(task.getTarget(), task.getQuery(), task.isComplete()) != null) {
+                return false;
+            }
+
+            ObjectNode op = taskToJson(task);
+            op.put("op", OP_PUT);
+            written = append(op);
+            registry.put(task);
+            maybeCompact();
+        }
+        awaitDurable(written);
+        return true;
+    }
+
+    /**
+     * Adds many tasks with a single write to the log. Duplicates are detected in memory, both
+     * against stored tasks and within the batch.
+     *
+     * @param tasks the tasks to persist
+     * @param force if false, tasks with the same target, query and completion state as a stored task
+     *              or an earlier task in the batch are skipped
+     * @return the tasks that were added, in the given order
+     * @throws IllegalArgumentException if any task names an unknown matcher engine; none are added then
+     */
+    public List<Task> addAll(Collection<Task> tasks, boolean force) {
+        tasks.forEach(TaskStore::checkMatcher);
+        List<Task> added = new ArrayList<>(tasks.size());
+        CompletableFuture<Void> written;
+        synchronized (this) {
+            Set<DuplicateKey> seen = new HashSet<>();
+            for (Task task : tasks) {
+                if (!force) {
+                    DuplicateKey key = new DuplicateKey(task.getTarget(), task.getQuery(), task.isComplete());
+                    if (!seen.add(key) || registry.findId(task.getTarget(), task.getQuery(), task.isComplete()) != null) {
+                        continue;
+                    }
+                }
+                added.add(task);
+            }
+            if (added.isEmpty()) return added;
+
+            List<ObjectNode> ops = new ArrayList<>(added.size());
+            for (Task task : added) {
+                ObjectNode op = taskToJson(task);
+                op.put("op", OP_PUT);
+                ops.add(op);
+            }
+            written = append(ops);
+            added.forEach(registry::put);
+            maybeCompact();
+        }
+        awaitDurable(written);
+        return added;
+    }
+
+    /**
+     * Updates the completion flag of a stored task.
+     *
+     * @param id the task id
+     * @param complete the new completion state
+     * @return whether a task with that id exists
+     */
+    public boolean setComplete(String id, boolean complete) {
+        CompletableFuture<Void> written;
+        synchronized (this) {
+            Boolean previous = registry.setComplete(id, complete);
+            if (previous == null) return false;
+            if (previous == complete) return true;
+
+            ObjectNode op = mapper.createObjectNode();
+            op.put("op", OP_COMPLETE);
+            op.put("id", id);
+            op.put("complete", complete);
+            written = append(op);
+            maybeCompact();
+        }
+        awaitDurable(written);
+        return true;
+    }
+
+    /**
+     * Removes the task with the given id.
+     *
+     * @param id the task id
+     * @return whether a task was removed
+     */
+    public boolean remove(String id) {
+        CompletableFuture<Void> written;
+        synchronized (this) {
+            if (!registry.contains(id)) return false;
+
+            ObjectNode op = mapper.createObjectNode();
+            op.put("op", OP_REMOVE);
+            op.put("id", id);
+            written = append(op);
+            registry.remove(id);
+            maybeCompact();
+        }
+        awaitDurable(written);
+        return true;
+    }
+
+    /**
+     * Removes many tasks with a single write to the log.
+     *
+     * @param ids the ids of the tasks to remove
+     * @return how many tasks were removed
+     */
+    public int removeAll(Collection<String> ids) {
+        Set<String> removed = new LinkedHashSet<>();
+        CompletableFuture<Void> written;
+        synchronized (this) {
+            List<ObjectNode> ops = new ArrayList<>();
+            for (String id : ids) {
+                if (!registry.contains(id) || !removed.add(id)) continue;
+                ObjectNode op = mapper.createObjectNode();
+                op.put("op", OP_REMOVE);
+                op.put("id", id);
+                ops.add(op);
+            }
+            if (ops.isEmpty()) return 0;
+
+            written = append(ops);
+            removed.forEach(registry::remove);
+            maybeCompact();
+        }
+        awaitDurable(written);
+        return removed.size();
+    }
+
+    /**
+     * Removes the first task with the same target, query and completion state as the given one,
+     * regardless of its id.
+     *
+     * @param task the task to match against
+     * @return whether a task was removed
+     */
+    public boolean removeMatching(Task task) {
+        String match = registry.findId(task.getTarget(), task.getQuery(), task.isComplete());
+        return match != null && remove(match);
+    }
+
+    /**
+     * Looks up a task by id.
+     *
+     * @param id the task id
+     * @return the stored task, if any
+     */
+    public Optional<Task> get(String id) {
+        return Optional.ofNullable(registry.get(id));
+    }
+
+    /**
+     * @return a copy of every stored task, in insertion order
+     */
+    public List<Task> getTasks() {
+        return registry.all();
+    }
+
+    /**
+     * Lists tasks in insertion order, one page at a time. Cursors stay valid across mutations:
+     * tasks added later appear on later pages, and removed tasks are simply skipped.
+     *
+     * @param filter which tasks to include
+     * @param cursor {@link TaskPage#nextCursor()} of the previous page, or null for the first page
+     * @param limit maximum number of tasks on the page
+     * @return the page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public TaskPage list(TaskFilter filter, String cursor, int limit) {
+        long after;
+        try {
+            after = cursor == null || cursor.isEmpty() ? 0 : Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return registry.list(filter, after, limit);
+    }
+
+    /**
+     * @return a counter that changes whenever a task is added, updated or removed
+     */
+    public long version() {
+        return registry.version();
+    }
+
+    /**
+     * {@link #version()} starts over whenever the store is opened, so a version only identifies the
+     * same content together with the epoch it was read in.
+     *
+     * @return a random id of this opening of the store
+     */
+    public String epoch() {
+        return epoch;
+    }
+
+    /**
+     * @return the number of stored tasks
+     */
+    public int size() {
+        return registry.size();
+    }
+
+    /**
+     * Tells a first start apart from a store that was emptied: a store whose tasks were all removed
+     * still has its files.
+     *
+     * @return whether neither the snapshot nor the write-ahead log existed when the store was opened
+     */
+    public boolean isNew() {
+        return created;
+    }
+
+    /**
+     * Rewrites the snapshot from memory and truncates the write-ahead log. The snapshot is written
+     * to a temporary file first and atomically renamed into place.
+     */
+    public synchronized void compact() {
+        if (closed) {
+            throw new IllegalStateException("Task store is closed");
+        }
+        long started = System.nanoTime();
+        try {
+            // The log must hold every change in the snapshot before the snapshot replaces the old one
+            wal.sync();
+
+            ObjectNode root = mapper.createObjectNode();
+            ArrayNode taskList = root.putArray(TASK_LIST);
+            for (Task task : registry.all()) {
+                taskList.add(taskToJson(task));
+            }
+
+            File temp = new File(snapshotFile.getAbsoluteFile().getParentFile(), snapshotFile.getName() + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                out.write(mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(root));
+                if (wal.policy() != FsyncPolicy.NEVER) out.getFD().sync();
+            }
+            Files.move(temp.toPath(), snapshotFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            // Replaying the old log over the new snapshot is harmless, so a crash here loses nothing
+            wal.truncate();
+            walEntries = 0;
+            metrics.recordStoreWrite("compact", System.nanoTime() - started);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compact task store at " + snapshotFile, e);
+        }
+    }
+
+    /**
+     * Writes out pending changes, compacts the store and releases the log file. Further mutations
+     * are rejected. If this was the default store, {@link #getDefault()} opens a new one afterwards.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            try {
+                if (walEntries > 0) compact();
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                closed = true;
+                wal.close();
+            }
+        }
+        synchronized (TaskStore.class) {
+            if (defaultStore == this) defaultStore = null;
+        }
+    }
+
+    private CompletableFuture<Void> append(ObjectNode op) {
+        return append(List.of(op));
+    }
+
+    /** Queues operations for the writer thread, which commits them together with any other pending writes. */
+    private CompletableFuture<Void> append(List<ObjectNode> ops) {
+        if (closed) {
+            throw new IllegalStateException("Task store is closed");
+        }
+        List<String> lines = new ArrayList<>(ops.size());
+        try {
+            for (ObjectNode op : ops) {
+                lines.add(mapper.writeValueAsString(op));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not serialize task operation", e);
+        }
+        walEntries += ops.size();
+        return wal.append(lines);
+    }
+
+    /**
+     * Under {@link FsyncPolicy#ALWAYS}, waits for a write to reach the disk. Called outside the
+     * store's lock so that concurrent callers can share a commit.
+     */
+    private void awaitDurable(CompletableFuture<Void> written) {
+        if (wal.policy() == FsyncPolicy.ALWAYS) {
+            WriteAheadLog.await(written);
+        }
+    }
+
+    /** Rejects a task before anything is logged, so the log never holds an entry the registry can't take. */
+    private static void checkMatcher(Task task) {
+        if (task.getMatcher() != null && !Matcher.ENGINES.contains(task.getMatcher())) {
+            throw new IllegalArgumentException("Unknown matcher engine: " + task.getMatcher());
+        }
+    }
+
+    private void maybeCompact() {
+        if (walEntries >= Math.max(COMPACTION_THRESHOLD, registry.size())) {
+            compact();
+        }
+    }
+
+    private void loadSnapshot() throws IOException {
+        if (!snapshotFile.exists() || snapshotFile.length() == 0) return;
+
+        JsonNode array = mapper.readTree(snapshotFile).get(TASK_LIST);
+        if (array == null || !array.isArray()) return;
+
+        for (JsonNode node : array) {
+            registry.put(taskFromJson(node));
+        }
+    }
+
+    private void replayLog() throws IOException {
+        if (!walFile.exists()) return;
+
+        try (BufferedReader reader = Files.newBufferedReader(walFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+
+                JsonNode op;
+                try {
+                    op = mapper.readTree(line);
+                } catch (IOException e) {
+                    // A torn final write from a crash; everything before it is intact
+                    System.err.println("⚠️ Ignoring unreadable entry in " + walFile + ": " + line);
+                    continue;
+                }
+                apply(op);
+                walEntries++;
+            }
+        }
+    }
+
+    private void apply(JsonNode op) {
+        String id = op.path("id").asText();
+        switch (op.path("op").asText()) {
+            case OP_PUT -> registry.put(taskFromJson(op));
+            case OP_COMPLETE -> registry.setComplete(id, op.path("complete").asBoolean());
+            case OP_REMOVE -> registry.remove(id);
+            default -> System.err.println("⚠️ Unknown operation in " + walFile + ": " + op);
+        }
+    }
+
+    /**
+     * @param task a task
+     * @return the task with every field the store keeps, in the form it is stored in
+     */
+    public static ObjectNode taskToJson(Task task) {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        node.put("id", task.getId());
+        node.put("target", task.getTarget());
+        node.put("query", task.getQuery());
+        node.put("complete", task.isComplete());
+        if (task.getIntervalSeconds() > 0) {
+            node.put("intervalSeconds", task.getIntervalSeconds());
+        }
+        if (task.getMatcher() != null) {
+            node.put("matcher", task.getMatcher());
+        }
+        if (task.getTopK() > 0) {
+            node.put("topK", task.getTopK());
+        }
+        if (task.getSelector() != null) {
+            node.put("selector", task.getSelector());
+        }
+        return node;
+    }
+
+    /**
+     * Rebuilds a task from its stored form, tolerating fields that predate their validation.
+     *
+     * @param node a task as written by {@link #taskToJson(Task)}
+     * @return the task, not added to any store
+     */
+    public static Task taskFromJson(JsonNode node) {
+        Task task = new Task(
+                node.path("id").asText(),
+                node.path("target").asText(),
+                node.path("query").asText(),
+                node.path("complete").asBoolean()
+        );
+        task.setIntervalSeconds(node.path("intervalSeconds").asInt(0));
+        String matcher = node.hasNonNull("matcher") ? node.get("matcher").asText() : null;
+        if (matcher != null && !Matcher.ENGINES.contains(matcher)) {
+            // Written before engines were validated; fall back to the default rather than refuse to open
+            System.err.println("⚠️ Unknown matcher engine '" + matcher + "' on task " + task.getId() + ", using the default");
+            matcher = null;
+        }
+        task.setMatcher(matcher);
+        task.setTopK(node.path("topK").asInt(0));
+        try {
+            task.setSelector(node.hasNonNull("selector") ? node.get("selector").asText() : null);
+        } catch (IllegalArgumentException e) {
+            // Written before selectors were validated; watch the whole page rather than refuse to open
+            System.err.println("⚠️ " + e.getMessage() + " on task " + task.getId() + ", watching the whole page");
+        }
+        return task;
+    }
+
+    private static File walFileFor(File snapshotFile) {
+        String name = snapshotFile.getName();
+        String base = name.endsWith(".json") ? name.substring(0, name.length() - ".json".length()) : name;
+        return new File(snapshotFile.getAbsoluteFile().getParentFile(), base + ".wal");
+    }
+}
@@ -0,0 +1,24 @@
+package com.sentinel.sentinel.store;
+
+import com.sentinel.sentinel.SentinelProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.File;
+
+/**
+ * Opens the task store with the Spring context and closes it with the context, releasing the log's
+ * file lock, so a context restarted in the same JVM (e.g. by devtools) can open it again.
+ */
+@Configuration
+public class TaskStoreConfiguration {
+
+    /**
+     * @param properties the {@code sentinel.store.*} settings
+     * @return the default store, backed by {@link TaskStore#DEFAULT_FILE_NAME} in the working directory
+     */
+    @Bean(destroyMethod = "close")
+    public TaskStore taskStore(SentinelProperties properties) {
+        return TaskStore.openDefault(new File(TaskStore.DEFAULT_FILE_NAME), properties.getStore().getFsync());
+    }
+}
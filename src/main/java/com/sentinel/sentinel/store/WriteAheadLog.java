@@ -0,0 +1,245 @@
+package com.sentinel.sentinel.store;
+
+import com.sentinel.sentinel.SentinelMetrics;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The {@link TaskStore}'s write-ahead log, owned by a single writer thread.
+ *
+ * <p>Callers enqueue lines and get a future back. The writer takes everything that queued up while
+ * it was busy, writes it in order, flushes once and, unless the policy is {@link FsyncPolicy#NEVER},
+ * forces it to disk once. Concurrent completions therefore share one write and one fsync instead
+ * of each paying for their own (group commit).
+ *
+ * <p>The log file is locked exclusively while open, so a second process can't interleave writes.
+ */
+final class WriteAheadLog {
+
+    /** Upper bound on operations committed together, so one huge burst can't starve its own callers. */
+    private static final int MAX_GROUP = 4096;
+
+    /** Work for the writer thread: lines to append, or a command to run once everything before it is written. */
+    private record Pending(List<String> lines, IoCommand command, CompletableFuture<Void> done) {}
+
+    @FunctionalInterface
+    private interface IoCommand {
+        void run() throws IOException;
+    }
+
+    private static final Pending STOP = new Pending(null, null, new CompletableFuture<>());
+
+    private final File file;
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final Writer writer;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final SentinelMetrics metrics = SentinelMetrics.global();
+    private final Thread thread;
+
+    private volatile FsyncPolicy policy;
+    private volatile boolean closed;
+
+    /**
+     * Opens the log for appending and starts its writer thread.
+     *
+     * @param file the log file, created if missing
+     * @param policy when writes are forced to disk
+     * @throws IOException if the file can't be opened or another process holds it
+     */
+    WriteAheadLog(File file, FsyncPolicy policy) throws IOException {
+        this.file = file;
+        this.policy = policy;
+
+        // A crash can leave a torn last line; start on a fresh one so the next entry isn't glued to it
+        boolean tornTail = endsWithoutNewline(file);
+
+        FileOutputStream out = new FileOutputStream(file, true);
+        this.channel = out.getChannel();
+        try {
+            this.lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            out.close();
+            throw new IOException("Task log " + file + " is already open in this process", e);
+        }
+        if (lock == null) {
+            out.close();
+            throw new IOException("Task log " + file + " is locked by another process");
+        }
+
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (tornTail) {
+            writer.write('\n');
+            writer.flush();
+        }
+
+        this.thread = new Thread(this::run, "sentinel-task-store-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues lines to be appended together.
+     *
+     * @param lines complete log entries, without line terminators
+     * @return a future completing once the lines are written and, unless the policy is
+     *         {@link FsyncPolicy#NEVER}, forced to disk
+     * @throws IllegalStateException if the log is closed
+     */
+    CompletableFuture<Void> append(List<String> lines) {
+        return enqueue(lines, null);
+    }
+
+    /**
+     * Blocks until everything queued so far is written and synced according to the policy.
+     */
+    void sync() {
+        await(enqueue(null, () -> {}));
+    }
+
+    /**
+     * Discards the log's contents once everything queued so far has been written. The caller must
+     * make sure those entries are already covered by a snapshot.
+     */
+    void truncate() {
+        await(enqueue(null, () -> {
+            channel.truncate(0);
+            if (policy != FsyncPolicy.NEVER) channel.force(true);
+        }));
+    }
+
+    FsyncPolicy policy() {
+        return policy;
+    }
+
+    void setPolicy(FsyncPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Writes whatever is still queued, stops the writer thread and releases the file.
+     */
+    void close() {
+        if (closed) return;
+        closed = true;
+        queue.add(STOP);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            writer.close(); // Also releases the lock
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(List<String> lines, IoCommand command) {
+        if (closed) {
+            throw new IllegalStateException("Task store is closed");
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        queue.add(new Pending(lines, command, done));
+        return done;
+    }
+
+    private void run() {
+        List<Pending> group = new ArrayList<>();
+        while (true) {
+            try {
+                group.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(group, MAX_GROUP - 1);
+            boolean stop = commit(group);
+            group.clear();
+            if (stop) return;
+        }
+    }
+
+    /** Writes one group in order. Returns whether the log is shutting down. */
+    private boolean commit(List<Pending> group) {
+        List<Pending> written = new ArrayList<>(group.size());
+        for (Pending pending : group) {
+            if (pending == STOP) {
+                flush(written);
+                return true;
+            }
+            if (pending.command() != null) {
+                // Commands see everything queued before them on disk
+                flush(written);
+                try {
+                    pending.command().run();
+                    pending.done().complete(null);
+                } catch (IOException e) {
+                    pending.done().completeExceptionally(new UncheckedIOException("Could not update " + file, e));
+                }
+                continue;
+            }
+            try {
+                for (String line : pending.lines()) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+                written.add(pending);
+            } catch (IOException e) {
+                e.printStackTrace();
+                pending.done().completeExceptionally(new UncheckedIOException("Could not append to " + file, e));
+            }
+        }
+        flush(written);
+        return false;
+    }
+
+    /** Flushes, and forces if the policy asks for it, then completes the given writes. */
+    private void flush(List<Pending> written) {
+        if (written.isEmpty()) return;
+        try {
+            long started = System.nanoTime();
+            writer.flush();
+            metrics.recordStoreWrite("append", System.nanoTime() - started);
+
+            if (policy != FsyncPolicy.NEVER) {
+                started = System.nanoTime();
+                channel.force(false);
+                metrics.recordStoreWrite("fsync", System.nanoTime() - started);
+            }
+            written.forEach(pending -> pending.done().complete(null));
+        } catch (IOException e) {
+            System.err.println("❌ Could not write task log " + file + ": " + e.getMessage());
+            UncheckedIOException failure = new UncheckedIOException("Could not append to " + file, e);
+            written.forEach(pending -> pending.done().completeExceptionally(failure));
+        }
+        written.clear();
+    }
+
+    /** Waits for a queued write, rethrowing its failure unwrapped. */
+    static void await(CompletableFuture<Void> done) {
+        try {
+            done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static boolean endsWithoutNewline(File file) throws IOException {
+        if (!file.exists() || file.length() == 0) return false;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(raf.length() - 1);
+            return raf.read() != '\n';
+        }
+    }
+}
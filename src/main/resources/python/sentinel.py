@@ -1,125 +1,200 @@
 from flask import Flask, request, jsonify
-from bs4 import BeautifulSoup
-from transformers import pipeline
-import requests
 import logging
-import json
-import os
 import re
+import threading
+import time
 import traceback
 from typing import Optional
 
 # 🧠 Load entailment model (zero-shot with RoBERTa)
+MODEL_ID = "roberta-large-mnli"
+# 🧭 Small bi-encoder that ranks sentences by similarity so only the closest reach the NLI model
+EMBED_MODEL_ID = "sentence-transformers/all-MiniLM-L6-v2"
+LOAD_STAGES = ["starting", "importing libraries", "loading tokenizer", "loading model", "loading embedder",
+               "warming up", "ready"]
+
+nli = None
+embed_tokenizer = None
+embed_model = None
+torch = None
+model_ready = False
+load_stage = LOAD_STAGES[0]
+load_error = None
+load_started = time.monotonic()
+
+def set_stage(stage: str):
+    global load_stage
+    load_stage = stage
+    logging.info(f"⏳ Model load: {stage} ({time.monotonic() - load_started:.1f}s)")
+
+# 🧠 Load the model in the background so /health can report progress while it loads
 def load_model():
-    return pipeline("zero-shot-classification", model="roberta-large-mnli", device=-1)
+    global nli, embed_tokenizer, embed_model, torch, model_ready, load_error
+    try:
+        set_stage("importing libraries")
+        import torch as torch_module
+        from transformers import AutoModel, AutoModelForSequenceClassification, AutoTokenizer, pipeline
+        torch = torch_module
+
+        set_stage("loading tokenizer")
+        tokenizer = AutoTokenizer.from_pretrained(MODEL_ID)
+
+        set_stage("loading model")
+        model = AutoModelForSequenceClassification.from_pretrained(MODEL_ID)
+        nli = pipeline("zero-shot-classification", model=model, tokenizer=tokenizer, device=-1)
+
+        set_stage("loading embedder")
+        embed_tokenizer = AutoTokenizer.from_pretrained(EMBED_MODEL_ID)
+        embed_model = AutoModel.from_pretrained(EMBED_MODEL_ID).eval()
+
+        # One throwaway pass so the first real request doesn't pay for lazy initialisation
+        set_stage("warming up")
+        score_pairs([("Sentinel is starting.", "Sentinel is starting")])
+        embed_texts(["Sentinel is starting."])
+
+        set_stage("ready")
+        model_ready = True
+    except Exception as e:
+        load_error = str(e)
+        logging.exception("🔥 Failed to load model")
 
-nli = load_model()
 app = Flask(__name__)
-model_ready = True
-TASK_LOG_FILE = "../../../../.task_log.json"
+BATCH_SIZE = 16
+EMBED_BATCH_SIZE = 64
+ENTAILMENT_THRESHOLD = 0.7
+HYPOTHESIS_TEMPLATE = "This text implies that {}"
 
 # 🔎 Regex sentence tokenizer
 def sent_tokenize(text):
     return re.split(r'(?<=[.!?])\s+(?=[A-Z])', text.strip())
 
-# 🔍 Detect numeric condition in query
-def parse_numeric_condition(query: str) -> Optional[tuple[str, float]]:
-    query = query.lower()
-    if match := re.search(r"(?:above|over|more than|greater than)\s*\$?(\d+(?:,\d{3})*(?:\.\d+)?)", query):
-        return (">", float(match.group(1).replace(",", "")))
-    if match := re.search(r"(?:below|under|less than|fewer than)\s*\$?(\d+(?:,\d{3})*(?:\.\d+)?)", query):
-        return ("<", float(match.group(1).replace(",", "")))
-    return None
-
-# ✅ Match query on page
-def page_entails(url: str, query: str) -> bool:
-    try:
-        response = requests.get(url, timeout=8)
-        soup = BeautifulSoup(response.text, "html.parser")
-        page_text = soup.get_text(separator=" ", strip=True)[:5000]
-
-        logging.info(f"🔢 Full HTML content (trimmed):\n{page_text[:1000]}")
-
-        condition = parse_numeric_condition(query)
-
-        for sentence in sent_tokenize(page_text):
-            if condition:
-                operator, threshold = condition
-                if num_match := re.search(r"(\d+(?:,\d{3})*(?:\.\d+)?)", sentence):
-                    value = float(num_match.group(1).replace(",", ""))
-                    logging.info(f"🔢 Checking numeric in sentence: '{sentence}'")
-                    if (operator == ">" and value > threshold) or (operator == "<" and value < threshold):
-                        logging.info(f"📊 Numeric match: {value} {operator} {threshold}")
-                        return True
-            else:
-                result = nli(sentence, candidate_labels=[query], hypothesis_template="This text implies that {}")
-                label = result["labels"][0]
-                score = result["scores"][0]
-                logging.info(f"🔍 \"{sentence}\" → {label} (score: {score:.2f})")
-
-                if label == query and score > 0.7:
-                    logging.info(f"✅ Match: \"{sentence}\"")
-                    return True
-
-        logging.info("❌ No entailment or numeric match found.")
-        return False
+# 🧮 Entailment probability for each (sentence, query) pair, BATCH_SIZE pairs per forward pass
+def score_pairs(pairs: list[tuple[str, str]]) -> list[float]:
+    label2id = {label.lower(): idx for label, idx in nli.model.config.label2id.items()}
+    contradiction, entailment = label2id["contradiction"], label2id["entailment"]
+
+    scores = []
+    for start in range(0, len(pairs), BATCH_SIZE):
+        chunk = pairs[start:start + BATCH_SIZE]
+        inputs = nli.tokenizer(
+            [sentence for sentence, _ in chunk],
+            [HYPOTHESIS_TEMPLATE.format(query) for _, query in chunk],
+            return_tensors="pt", padding=True, truncation="only_first"
+        )
+        with torch.no_grad():
+            logits = nli.model(**inputs).logits
+        # Same scoring the zero-shot pipeline uses for a single candidate label
+        scores.extend(logits[:, [contradiction, entailment]].softmax(dim=-1)[:, 1].tolist())
+    return scores
+
+# 🧭 Unit-length sentence embeddings (mean pooling), so cosine similarity is a dot product
+def embed_texts(texts: list[str]) -> list[list[float]]:
+    embeddings = []
+    for start in range(0, len(texts), EMBED_BATCH_SIZE):
+        inputs = embed_tokenizer(texts[start:start + EMBED_BATCH_SIZE], return_tensors="pt",
+                                 padding=True, truncation=True)
+        with torch.no_grad():
+            tokens = embed_model(**inputs).last_hidden_state
+        mask = inputs["attention_mask"].unsqueeze(-1).float()
+        pooled = (tokens * mask).sum(dim=1) / mask.sum(dim=1).clamp(min=1e-9)
+        embeddings.extend(torch.nn.functional.normalize(pooled, dim=-1).tolist())
+    return embeddings
+
+# ✅ Score many queries against already segmented sentences in one pass
+# Each query may name the sentence indices it needs (the rest are cached by the caller).
+# Every query gets {"matched"} and the "scores" of its sentences, in order. Numeric and keyword
+# conditions are decided by the Java service and never reach the model.
+def batch_scores(sentences: list[str], queries: list[str], subsets: Optional[list] = None,
+                 threshold: float = ENTAILMENT_THRESHOLD) -> list[dict]:
+    subsets = subsets or [None] * len(queries)
+    results = []
+
+    pairs, spans = [], []
+    for query, subset in zip(queries, subsets):
+        selected = sentences if subset is None else [sentences[j] for j in subset]
+        spans.append((len(pairs), len(pairs) + len(selected)))
+        pairs.extend((sentence, query) for sentence in selected)
+
+    scores = score_pairs(pairs) if pairs else []
+
+    for query, (start, end) in zip(queries, spans):
+        query_scores = scores[start:end]
+        best = max(query_scores, default=0.0)
+        logging.info(f"🔍 \"{query}\" → best score {best:.2f}")
+        results.append({"matched": best > threshold, "scores": query_scores})
+        logging.info(f"{'✅ Match' if best > threshold else '❌ No entailment'}: \"{query}\"")
+    return results
+
+# 📡 POST /match/batch
+@app.route("/match/batch", methods=["POST"])
+def match_batch():
+    if not model_ready:
+        return jsonify({"error": "Model not ready"}), 503
 
-    except Exception as e:
-        logging.exception("🔥 Error during entailment check")
-        return False
+    data = request.get_json()
+    text = data.get("text")
+    # Java may send only the sentences that changed since the last check instead of the full text
+    sentences = data.get("sentences")
+    queries = data.get("queries") or []
+
+    logging.info(f"📥 Incoming batch for {data.get('url')} with {len(queries)} queries")
+    if (text is None and sentences is None) or any(not q.get("query") for q in queries):
+        return jsonify({"error": "Missing text or query"}), 400
 
-# ✅ Mark task complete
-def mark_task_complete_by_id(task_id):
     try:
-        if not os.path.exists(TASK_LOG_FILE):
-            logging.warning("⚠️ Task log file not found.")
-            return
-
-        with open(TASK_LOG_FILE, "r", encoding="utf-8") as f:
-            data = json.load(f)
-
-        changed = False
-        for task in data.get("taskList", []):
-            if task.get("id") == task_id and not task.get("complete", False):
-                task["complete"] = True
-                changed = True
-
-        if changed:
-            with open(TASK_LOG_FILE, "w", encoding="utf-8") as f:
-                json.dump(data, f, indent=2)
-            logging.info(f"📂 Marked task {task_id} as complete in {TASK_LOG_FILE}")
+        started = time.perf_counter()
+        if sentences is None:
+            sentences = [s for s in sent_tokenize(text) if s]
+        results = batch_scores(
+            sentences,
+            [q["query"] for q in queries],
+            [q.get("sentences") for q in queries],
+            data.get("threshold") or ENTAILMENT_THRESHOLD
+        )
+        inference_ms = (time.perf_counter() - started) * 1000
+        return jsonify({
+            "results": [{"id": q.get("id"), **result} for q, result in zip(queries, results)],
+            "model": MODEL_ID,
+            "inference_ms": inference_ms
+        })
     except Exception as e:
-        logging.exception("❌ Failed to update task log file")
+        logging.exception("🔥 Error processing batch")
+        return jsonify({"error": str(e)}), 500
 
-# 📡 POST /match
-@app.route("/match", methods=["POST"])
-def match():
+# 📡 POST /embed
+@app.route("/embed", methods=["POST"])
+def embed():
     if not model_ready:
         return jsonify({"error": "Model not ready"}), 503
 
-    logging.info("📥 Incoming request to /match")
-    data = request.get_json()
-    url = data.get("url")
-    query = data.get("query")
-    task_id = data.get("id")
-
-    logging.info(f"🛆 Body: {data}")
-    if not url or not query:
-        return jsonify({"error": "Missing URL or query"}), 400
+    texts = (request.get_json() or {}).get("texts")
+    if not isinstance(texts, list) or any(not isinstance(t, str) for t in texts):
+        return jsonify({"error": "Missing texts"}), 400
 
     try:
-        entails = page_entails(url, query)
-        if entails and task_id:
-            mark_task_complete_by_id(task_id)
-        return jsonify({"matched": entails})
+        started = time.perf_counter()
+        embeddings = embed_texts(texts) if texts else []
+        return jsonify({
+            "embeddings": embeddings,
+            "model": EMBED_MODEL_ID,
+            "inference_ms": (time.perf_counter() - started) * 1000
+        })
     except Exception as e:
-        logging.exception("🔥 Error processing request")
+        logging.exception("🔥 Error embedding texts")
         return jsonify({"error": str(e)}), 500
 
 # ⚕️ GET /health
 @app.route("/health", methods=["GET"])
 def health():
-    return jsonify({"ready": model_ready}), 200 if model_ready else 503
+    body = {
+        "ready": model_ready,
+        "stage": "failed" if load_error else load_stage,
+        "progress": LOAD_STAGES.index(load_stage) / (len(LOAD_STAGES) - 1),
+        "elapsed_s": round(time.monotonic() - load_started, 1)
+    }
+    if load_error:
+        body["error"] = load_error
+    return jsonify(body), 200 if model_ready else 503
 
 # 🚀 Main
 if __name__ == "__main__":
@@ -128,4 +203,5 @@ if __name__ == "__main__":
     parser = argparse.ArgumentParser()
     parser.add_argument('--port', type=int, default=5001)
     args = parser.parse_args()
+    threading.Thread(target=load_model, name="model-loader", daemon=True).start()
     app.run(host="0.0.0.0", port=args.port)
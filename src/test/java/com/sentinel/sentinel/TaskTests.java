@@ -0,0 +1,30 @@
+package com.sentinel.sentinel;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskTests {
+
+    @Test
+    void rejectsInvalidSelectors() {
+        Task task = new Task("https://example.com", "query");
+
+        assertThatThrownBy(() -> task.setSelector("div["))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("div[");
+        assertThat(task.getSelector()).isNull();
+    }
+
+    @Test
+    void stripsSelectorsAndTreatsBlankAsTheWholePage() {
+        Task task = new Task("https://example.com", "query");
+
+        task.setSelector("  #score > td ");
+        assertThat(task.getSelector()).isEqualTo("#score > td");
+
+        task.setSelector(" ");
+        assertThat(task.getSelector()).isNull();
+    }
+}
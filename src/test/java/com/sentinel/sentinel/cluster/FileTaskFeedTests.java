@@ -0,0 +1,48 @@
+package com.sentinel.sentinel.cluster;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileTaskFeedTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsChangesFromWhereTheLastReadStopped() throws Exception {
+        FileTaskFeed feed = new FileTaskFeed(dir.resolve("tasks.jsonl").toFile());
+        TaskChange added = TaskChange.added("one", JsonNodeFactory.instance.objectNode().put("query", "sold out"));
+        feed.append(List.of(added, TaskChange.completed("one")));
+
+        TaskFeed.Batch first = feed.read(0);
+        assertThat(first.changes()).containsExactly(added, TaskChange.completed("one"));
+
+        feed.append(List.of(TaskChange.removed("one")));
+        TaskFeed.Batch second = feed.read(first.next());
+        assertThat(second.changes()).containsExactly(TaskChange.removed("one"));
+        assertThat(feed.read(second.next()).changes()).isEmpty();
+    }
+
+    @Test
+    void tornLineFromACrashedAppendIsSkipped() throws Exception {
+        Path file = dir.resolve("tasks.jsonl");
+        FileTaskFeed feed = new FileTaskFeed(file.toFile());
+        feed.append(List.of(TaskChange.completed("one")));
+        Files.write(file, "{\"kind\":\"REMO".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        TaskFeed.Batch before = feed.read(0);
+        assertThat(before.changes()).containsExactly(TaskChange.completed("one"));
+
+        feed.append(List.of(TaskChange.removed("two")));
+        assertThat(feed.read(before.next()).changes()).containsExactly(TaskChange.removed("two"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.sentinel.sentinel.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashRingTests {
+
+    private static final int VIRTUAL_NODES = 128;
+    private static final List<String> KEYS = keys(20_000);
+
+    @Test
+    void spreadsKeysEvenly() {
+        HashRing ring = new HashRing(List.of("node-a", "node-b", "node-c", "node-d"), VIRTUAL_NODES);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (String key : KEYS) {
+            counts.merge(ring.owner(key), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(4);
+        for (int count : counts.values()) {
+            assertThat(count).isBetween(KEYS.size() / 4 * 3 / 4, KEYS.size() / 4 * 5 / 4);
+        }
+    }
+
+    @Test
+    void joiningNodeTakesOnlyItsShare() {
+        HashRing before = new HashRing(List.of("node-a", "node-b", "node-c", "node-d"), VIRTUAL_NODES);
+        HashRing after = new HashRing(List.of("node-a", "node-b", "node-c", "node-d", "node-e"), VIRTUAL_NODES);
+
+        int moved = 0;
+        for (String key : KEYS) {
+            String owner = after.owner(key);
+            if (!owner.equals(before.owner(key))) {
+                assertThat(owner).isEqualTo("node-e");
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(KEYS.size() / 5 * 3 / 4, KEYS.size() / 5 * 5 / 4);
+    }
+
+    @Test
+    void leavingNodeHandsOffOnlyItsKeys() {
+        HashRing before = new HashRing(List.of("node-a", "node-b", "node-c"), VIRTUAL_NODES);
+        HashRing after = new HashRing(List.of("node-a", "node-c"), VIRTUAL_NODES);
+
+        for (String key : KEYS) {
+            String owner = before.owner(key);
+            if (!owner.equals("node-b")) {
+                assertThat(after.owner(key)).isEqualTo(owner);
+            }
+        }
+    }
+
+    @Test
+    void sameNodesGiveTheSameRingInAnyOrder() {
+        HashRing one = new HashRing(List.of("node-a", "node-b", "node-c"), VIRTUAL_NODES);
+        HashRing other = new HashRing(List.of("node-c", "node-a", "node-b", "node-a"), VIRTUAL_NODES);
+
+        assertThat(other.nodes()).isEqualTo(one.nodes());
+        for (String key : KEYS.subList(0, 1000)) {
+            assertThat(other.owner(key)).isEqualTo(one.owner(key));
+        }
+    }
+
+    @Test
+    void emptyRingOwnsNothing() {
+        assertThat(new HashRing(List.of(), VIRTUAL_NODES).owner("example.com")).isNull();
+    }
+
+    @Test
+    void shardsByLowerCasedHost() {
+        assertThat(HashRing.hostOf(" https://News.Example.com/a?b=c ")).isEqualTo("news.example.com");
+        assertThat(HashRing.hostOf("http://news.example.com:8080/other")).isEqualTo("news.example.com");
+        assertThat(HashRing.hostOf("not a url")).isEqualTo("not a url");
+        assertThat(HashRing.hostOf("file:///tmp/page.html")).isEqualTo("file:///tmp/page.html");
+    }
+
+    private static List<String> keys(int count) {
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add("site-" + i + ".example.com");
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,89 @@
+package com.sentinel.sentinel.condition;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConditionParserTests {
+
+    @Test
+    void compilesThresholdWithSubjectAndUnit() {
+        Condition condition = compile("CSK scored more than 200 runs");
+
+        assertThat(condition).isEqualTo(new NumericCondition(NumericCondition.Comparison.GREATER, 200, 200, "run",
+                Set.of("csk", "scor")));
+        assertThat(condition.test(List.of("Toss won by MI.", "CSK scored 201 runs in the final over."))).isTrue();
+        assertThat(condition.test(List.of("CSK scored 180 runs."))).isFalse();
+        assertThat(condition.test(List.of("MI scored 250 runs."))).isFalse();
+        assertThat(condition.test(List.of("CSK scored 250 wickets."))).isFalse();
+    }
+
+    @Test
+    void readsLongerComparisonsFirst() {
+        assertThat(compile("no more than 5 errors")).extracting("comparison").isEqualTo(NumericCondition.Comparison.AT_MOST);
+        assertThat(compile("at least 5 errors")).extracting("comparison").isEqualTo(NumericCondition.Comparison.AT_LEAST);
+        assertThat(compile("fewer than 5 errors")).extracting("comparison").isEqualTo(NumericCondition.Comparison.LESS);
+        assertThat(compile("errors >= 5")).extracting("comparison").isEqualTo(NumericCondition.Comparison.AT_LEAST);
+    }
+
+    @Test
+    void matchesCurrencyOnlyInTheSameCurrency() {
+        Condition condition = compile("price below $50");
+
+        assertThat(condition.test(List.of("Now only $45."))).isTrue();
+        assertThat(condition.test(List.of("Now only €45."))).isFalse();
+        assertThat(condition.test(List.of("Now $55."))).isFalse();
+    }
+
+    @Test
+    void keepsTheAndOfARangeTogether() {
+        Condition condition = compile("between 10 and 20 degrees");
+
+        assertThat(condition).isEqualTo(new NumericCondition(NumericCondition.Comparison.BETWEEN, 10, 20, "degre", Set.of()));
+        assertThat(condition.test(List.of("It will be 15 degrees tomorrow."))).isTrue();
+        assertThat(condition.test(List.of("It will be 25 degrees tomorrow."))).isFalse();
+    }
+
+    @Test
+    void compilesQuotedKeywords() {
+        assertThat(compile("no longer mentions \"Sold  Out\"")).isEqualTo(new KeywordCondition("sold out", false));
+        assertThat(compile("mentions 'in stock'")).isEqualTo(new KeywordCondition("in stock", true));
+        assertThat(compile("“back in stock” appears")).isEqualTo(new KeywordCondition("back in stock", true));
+
+        Condition gone = compile("\"sold out\" is gone");
+        assertThat(gone.test(List.of("Tickets sold out."))).isFalse();
+        assertThat(gone.test(List.of("Tickets available."))).isTrue();
+    }
+
+    @Test
+    void joinsClausesWithAnd() {
+        Condition condition = compile("between 10 and 20 degrees and mentions \"sunny\"");
+
+        assertThat(condition).isInstanceOf(Condition.AllOf.class);
+        assertThat(((Condition.AllOf) condition).conditions()).hasSize(2);
+        assertThat(condition.test(List.of("Sunny, with 15 degrees."))).isTrue();
+        assertThat(condition.test(List.of("Cloudy, with 15 degrees."))).isFalse();
+    }
+
+    @Test
+    void skipsYearsUnlessTheQueryIsAboutYears() {
+        assertThat(compile("more than 100").test(List.of("It happened in 2019."))).isFalse();
+        assertThat(compile("more than 100").test(List.of("It sold 2,019 copies."))).isTrue();
+        assertThat(compile("over 2000").test(List.of("It happened in 2019."))).isTrue();
+    }
+
+    @Test
+    void leavesQueriesItDoesNotFullyUnderstandToTheMatcher() {
+        assertThat(Condition.compile("When CBSE announces class X result")).isEmpty();
+        assertThat(Condition.compile("CSK scored more than 200 runs and won the toss")).isEmpty();
+        assertThat(Condition.compile("the \"sold out\" banner")).isEmpty();
+        assertThat(Condition.compile("")).isEmpty();
+    }
+
+    private static Condition compile(String query) {
+        return Condition.compile(query).orElseThrow(() -> new AssertionError("Did not compile: " + query));
+    }
+}
@@ -0,0 +1,39 @@
+package com.sentinel.sentinel.condition;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuantityTests {
+
+    @Test
+    void appliesScalesAndThousandsSeparators() {
+        assertThat(Quantity.findAll("Raised 2.5 million")).containsExactly(new Quantity(2_500_000, null, false));
+        assertThat(Quantity.findAll("Costs $1,200")).containsExactly(new Quantity(1200, "usd", false));
+        assertThat(Quantity.findAll("Sold for ₹5 lakh")).containsExactly(new Quantity(500_000, "inr", false));
+        assertThat(Quantity.findAll("A 3k run")).extracting(Quantity::value).containsExactly(3000.0);
+    }
+
+    @Test
+    void normalizesUnits() {
+        assertThat(Quantity.findAll("up 45%")).extracting(Quantity::unit).containsExactly("%");
+        assertThat(Quantity.findAll("up 30 percent")).extracting(Quantity::unit).containsExactly("%");
+        assertThat(Quantity.findAll("It is 25 °C outside")).extracting(Quantity::unit).containsExactly("°c");
+        assertThat(Quantity.findAll("50 euros or 10 rupees")).extracting(Quantity::unit).containsExactly("eur", "inr");
+        assertThat(Quantity.findAll("201 runs")).extracting(Quantity::unit).containsExactly("run");
+        assertThat(Quantity.findAll("10 and 20 of them")).extracting(Quantity::unit).containsExactly(null, null);
+    }
+
+    @Test
+    void ignoresDigitsInsideWords() {
+        assertThat(Quantity.findAll("covid19 and mp3")).isEmpty();
+    }
+
+    @Test
+    void tellsYearsFromAmounts() {
+        assertThat(Quantity.findAll("in 2019").get(0).looksLikeYear()).isTrue();
+        assertThat(Quantity.findAll("2,019 copies").get(0).looksLikeYear()).isFalse();
+        assertThat(Quantity.findAll("$2019").get(0).looksLikeYear()).isFalse();
+        assertThat(Quantity.findAll("in 1850").get(0).looksLikeYear()).isFalse();
+    }
+}
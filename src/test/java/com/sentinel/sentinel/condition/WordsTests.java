@@ -0,0 +1,25 @@
+package com.sentinel.sentinel.condition;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WordsTests {
+
+    @Test
+    void stemsInflectionsAlike() {
+        assertThat(Words.stem("scores")).isEqualTo(Words.stem("score"));
+        assertThat(Words.stem("scored")).isEqualTo(Words.stem("score"));
+        assertThat(Words.stem("scoring")).isEqualTo(Words.stem("score"));
+        assertThat(Words.stem("runs")).isEqualTo("run");
+        assertThat(Words.stem("class")).isEqualTo("class");
+        assertThat(Words.stem("is")).isEqualTo("is");
+    }
+
+    @Test
+    void keepsOnlyContentWordsInOrder() {
+        assertThat(Words.contentStems("Notify me when CSK total runs reach 200"))
+                .containsExactly("csk", "run", "200");
+        assertThat(Words.contentStems("when the price drops")).isEmpty();
+    }
+}
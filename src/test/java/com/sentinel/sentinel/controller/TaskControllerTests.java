@@ -0,0 +1,152 @@
+package com.sentinel.sentinel.controller;
+
+import com.sentinel.sentinel.SentinelProperties;
+import com.sentinel.sentinel.Task;
+import com.sentinel.sentinel.service.TaskObserverService;
+import com.sentinel.sentinel.store.FsyncPolicy;
+import com.sentinel.sentinel.store.TaskStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TaskControllerTests {
+
+    @TempDir
+    Path dir;
+
+    private TaskStore store;
+    private TaskObserverService observer;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void open() {
+        store = TaskStore.openDefault(dir.resolve(TaskStore.DEFAULT_FILE_NAME).toFile(), FsyncPolicy.NEVER);
+        observer = new TaskObserverService(new SentinelProperties(), store);
+        mvc = MockMvcBuilders.standaloneSetup(new TaskController(observer, store)).build();
+    }
+
+    @AfterEach
+    void close() {
+        observer.stopObserving();
+        store.close();
+    }
+
+    @Test
+    void unchangedListIsNotModified() throws Exception {
+        store.add(new Task("https://example.com", "first"), false);
+        String eTag = eTag();
+
+        mvc.perform(get("/api/tasks").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag));
+        mvc.perform(get("/api/tasks").header("If-None-Match", "W/" + eTag))
+                .andExpect(status().isNotModified());
+        mvc.perform(get("/api/tasks").header("If-None-Match", "\"stale\", " + eTag))
+                .andExpect(status().isNotModified());
+        mvc.perform(get("/api/tasks").header("If-None-Match", "*"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void changedListIsSentAgain() throws Exception {
+        String eTag = eTag();
+        store.add(new Task("https://example.com", "first"), false);
+
+        mvc.perform(get("/api/tasks").header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+        assertThat(eTag()).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void tagsFromBeforeARestartNeverMatch() throws Exception {
+        store.add(new Task("https://example.com", "first"), false);
+        String eTag = eTag();
+        long version = store.version();
+
+        // Reopened with the same number of changes replayed, so the version alone would repeat
+        close();
+        File snapshot = dir.resolve("other").resolve(TaskStore.DEFAULT_FILE_NAME).toFile();
+        snapshot.getParentFile().mkdirs();
+        store = TaskStore.openDefault(snapshot, FsyncPolicy.NEVER);
+        store.add(new Task("https://example.org", "another"), false);
+        observer = new TaskObserverService(new SentinelProperties(), store);
+        mvc = MockMvcBuilders.standaloneSetup(new TaskController(observer, store)).build();
+        assertThat(store.version()).isEqualTo(version);
+
+        mvc.perform(get("/api/tasks").header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void batchSkipsDuplicatesWithinTheRequest() throws Exception {
+        registerBatch("""
+                [{"target": "http://127.0.0.1:9/", "query": "sold out", "matcher": "java"},
+                 {"target": "http://127.0.0.1:9/", "query": "sold out", "matcher": "java"},
+                 {"target": "http://127.0.0.1:9/", "query": "back in stock", "matcher": "java"}]
+                """)
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].query").value("sold out"))
+                .andExpect(jsonPath("$[1].query").value("back in stock"));
+
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @Test
+    void batchSkipsDuplicatesOfStoredTasks() throws Exception {
+        store.add(new Task("http://127.0.0.1:9/", "sold out"), false);
+
+        registerBatch("""
+                [{"target": "http://127.0.0.1:9/", "query": "sold out", "matcher": "java"},
+                 {"target": "http://127.0.0.1:9/", "query": "back in stock", "matcher": "java"}]
+                """)
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].query").value("back in stock"));
+
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @Test
+    void oneBadEntryRejectsTheWholeBatch() throws Exception {
+        String good = "{\"target\": \"http://127.0.0.1:9/\", \"query\": \"sold out\", \"matcher\": \"java\"}";
+        String[] bad = {
+                "{\"target\": \"http://127.0.0.1:9/\", \"matcher\": \"java\"}",
+                "{\"target\": \" \", \"query\": \"back in stock\", \"matcher\": \"java\"}",
+                "{\"target\": \"http://127.0.0.1:9/\", \"query\": \"back in stock\", \"matcher\": \"regex\"}",
+                "{\"target\": \"http://127.0.0.1:9/\", \"query\": \"back in stock\", \"intervalSeconds\": -1}",
+                "{\"target\": \"http://127.0.0.1:9/\", \"query\": \"back in stock\", \"topK\": -1}",
+                "{\"target\": \"http://127.0.0.1:9/\", \"query\": \"back in stock\", \"selector\": \"div[\"}",
+        };
+
+        for (String entry : bad) {
+            registerBatch("[" + good + ", " + entry + "]").andExpect(status().isBadRequest());
+        }
+        assertThat(store.size()).isZero();
+    }
+
+    private ResultActions registerBatch(String json) throws Exception {
+        return mvc.perform(post("/api/tasks/batch").contentType(MediaType.APPLICATION_JSON).content(json));
+    }
+
+    private String eTag() throws Exception {
+        return mvc.perform(get("/api/tasks"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+    }
+}
@@ -0,0 +1,63 @@
+package com.sentinel.sentinel.matcher;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntailmentCacheTests {
+
+    private long now = 1_000;
+
+    @Test
+    void evictsTheLeastRecentlyUsedScoreAtCapacity() {
+        EntailmentCache cache = new EntailmentCache(2, Duration.ofHours(1), () -> now);
+        cache.put("a", "query", "mnli", 0.1);
+        cache.put("b", "query", "mnli", 0.2);
+        cache.get("a", "query", "mnli");
+
+        cache.put("c", "query", "mnli", 0.3);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a", "query", "mnli")).hasValue(0.1);
+        assertThat(cache.get("b", "query", "mnli")).isEmpty();
+        assertThat(cache.get("c", "query", "mnli")).hasValue(0.3);
+    }
+
+    @Test
+    void scoresExpireAfterTheTtl() {
+        EntailmentCache cache = new EntailmentCache(10, Duration.ofSeconds(10), () -> now);
+        cache.put("a", "query", "mnli", 0.9);
+
+        now += Duration.ofSeconds(10).toNanos();
+        assertThat(cache.get("a", "query", "mnli")).hasValue(0.9);
+
+        now += 1;
+        assertThat(cache.get("a", "query", "mnli")).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void rescoringRestartsTheTtl() {
+        EntailmentCache cache = new EntailmentCache(10, Duration.ofSeconds(10), () -> now);
+        cache.put("a", "query", "mnli", 0.9);
+
+        now += Duration.ofSeconds(8).toNanos();
+        cache.put("a", "query", "mnli", 0.4);
+        now += Duration.ofSeconds(8).toNanos();
+
+        assertThat(cache.get("a", "query", "mnli")).hasValue(0.4);
+    }
+
+    @Test
+    void keysIncludeSentenceQueryAndModel() {
+        EntailmentCache cache = new EntailmentCache(10, Duration.ofHours(1), () -> now);
+        cache.put("a", "query", "mnli", 0.9);
+
+        assertThat(cache.get("a", "query", "mnli")).hasValue(0.9);
+        assertThat(cache.get("b", "query", "mnli")).isEmpty();
+        assertThat(cache.get("a", "other query", "mnli")).isEmpty();
+        assertThat(cache.get("a", "query", "another-model")).isEmpty();
+    }
+}
@@ -0,0 +1,183 @@
+package com.sentinel.sentinel.matcher;
+
+import com.sentinel.sentinel.Task;
+import com.sentinel.sentinel.service.MatcherClient;
+import com.sentinel.sentinel.service.MatcherClient.BatchQuery;
+import com.sentinel.sentinel.service.MatcherClient.BatchResult;
+import com.sentinel.sentinel.service.PythonProcessManager;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NliMatcherTests {
+
+    private static final String QUERY = "Rain stopped the match";
+    private static final List<String> PAGE = List.of(
+            "Rain stops play.",     // 0.90
+            "Teams walk off.",      // 0.10
+            "Covers are on.",       // 0.60
+            "Crowd cheers.",        // 0.00
+            "Rain returns."         // 0.95
+    );
+
+    private final StubClient client = new StubClient();
+    private final EntailmentCache scores = new EntailmentCache(1000, Duration.ofHours(1));
+    private final EmbeddingCache embeddings = new EmbeddingCache(1000);
+
+    @Test
+    void topKZeroSendsEverySentence() {
+        NliMatcher matcher = matcher(0.7, 0);
+
+        matcher.match("https://example.com", PAGE, List.of(new Task("https://example.com", QUERY))).join();
+
+        assertThat(client.embedCalls).isEmpty();
+        assertThat(client.scoreCalls).hasSize(1);
+        assertThat(client.scoreCalls.get(0).get(0).sentences()).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    void topKSendsTheMostSimilarSentencesInPageOrder() {
+        NliMatcher matcher = matcher(0.7, 2);
+        Task byDefault = new Task("https://example.com", QUERY);
+        Task ownTopK = new Task("https://example.com", QUERY);
+        ownTopK.setTopK(3);
+
+        matcher.match("https://example.com", PAGE, List.of(byDefault, ownTopK)).join();
+
+        Map<String, List<Integer>> sent = new HashMap<>();
+        client.scoreCalls.get(0).forEach(query -> sent.put(query.id(), query.sentences()));
+        assertThat(sent.get(byDefault.getId())).containsExactly(0, 4);
+        assertThat(sent.get(ownTopK.getId())).containsExactly(0, 2, 4);
+    }
+
+    @Test
+    void topKAtLeastThePageSizeSkipsEmbedding() {
+        NliMatcher matcher = matcher(0.7, PAGE.size());
+
+        matcher.match("https://example.com", PAGE, List.of(new Task("https://example.com", QUERY))).join();
+
+        assertThat(client.embedCalls).isEmpty();
+        assertThat(client.scoreCalls.get(0).get(0).sentences()).hasSize(PAGE.size());
+    }
+
+    @Test
+    void repeatedSentencesAreEmbeddedOnce() {
+        NliMatcher matcher = matcher(0.7, 2);
+        List<String> page = new ArrayList<>(PAGE);
+        page.add("Rain stops play.");
+        Task task = new Task("https://example.com", QUERY);
+
+        matcher.match("https://example.com", page, List.of(task)).join();
+        assertThat(client.embedCalls).hasSize(1);
+        assertThat(client.embedCalls.get(0)).containsExactlyInAnyOrder(
+                QUERY, "Rain stops play.", "Teams walk off.", "Covers are on.", "Crowd cheers.", "Rain returns.");
+
+        // Another check of the same page, and another page sharing sentences, embed nothing again
+        matcher.match("https://example.com", page, List.of(task)).join();
+        matcher.match("https://example.org", List.of("Rain returns.", "Covers are on.", "Crowd cheers."), List.of(task)).join();
+        assertThat(client.embedCalls).hasSize(1);
+    }
+
+    @Test
+    void failedEmbeddingFallsBackToEverySentence() {
+        NliMatcher matcher = matcher(0.7, 2);
+        client.failEmbedding = true;
+
+        matcher.match("https://example.com", PAGE, List.of(new Task("https://example.com", QUERY))).join();
+
+        assertThat(client.scoreCalls.get(0).get(0).sentences()).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    void cachedScoresAreJudgedAgainstEachMatchersThreshold() {
+        client.entailment.put("Rain stops play.", 0.8);
+        Task task = new Task("https://example.com", QUERY);
+        List<String> page = List.of("Rain stops play.");
+
+        assertThat(matcher(0.7, 0).match("https://example.com", page, List.of(task)).join())
+                .containsEntry(task.getId(), true);
+
+        // A stricter matcher sharing the cache learns the model, then decides from the cached 0.8
+        NliMatcher strict = matcher(0.9, 0);
+        strict.match("https://example.com", List.of("Crowd cheers."), List.of(task)).join();
+        int calls = client.scoreCalls.size();
+        assertThat(strict.match("https://example.com", page, List.of(task)).join())
+                .containsEntry(task.getId(), false);
+        assertThat(client.scoreCalls).hasSize(calls);
+    }
+
+    NliMatcher matcher(double threshold, int topK) {
+        return new NliMatcher(new StubWorkers(client), scores, embeddings, threshold, topK);
+    }
+
+    /** Routes every call to one stub client, as a pool with a single healthy worker would. */
+    static final class StubWorkers extends PythonProcessManager {
+        private final MatcherClient client;
+
+        StubWorkers(MatcherClient client) {
+            this.client = client;
+        }
+
+        @Override
+        public <T> CompletableFuture<T> call(Function<MatcherClient, CompletableFuture<T>> request) {
+            return request.apply(client);
+        }
+    }
+
+    /**
+     * Embeds texts onto a plane so their similarity to {@link #QUERY} is set by {@link #SIMILARITY},
+     * and scores each sentence's entailment as set in {@link #entailment}.
+     */
+    static final class StubClient extends MatcherClient {
+        private static final Map<String, Double> SIMILARITY = Map.of(
+                QUERY, 1.0,
+                "Rain stops play.", 0.90,
+                "Teams walk off.", 0.10,
+                "Covers are on.", 0.60,
+                "Crowd cheers.", 0.0,
+                "Rain returns.", 0.95
+        );
+
+        final List<List<String>> embedCalls = new ArrayList<>();
+        final List<List<BatchQuery>> scoreCalls = new ArrayList<>();
+        final Map<String, Double> entailment = new HashMap<>();
+        boolean failEmbedding;
+
+        StubClient() {
+            super(0, Duration.ofSeconds(1), Duration.ofSeconds(1));
+        }
+
+        @Override
+        public CompletableFuture<EmbedResponse> embed(List<String> texts) {
+            embedCalls.add(List.copyOf(texts));
+            if (failEmbedding) return CompletableFuture.failedFuture(new IllegalStateException("no bi-encoder"));
+
+            List<float[]> vectors = texts.stream().map(text -> {
+                double cos = SIMILARITY.getOrDefault(text, 0.0);
+                return new float[] {(float) cos, (float) Math.sqrt(1 - cos * cos)};
+            }).toList();
+            return CompletableFuture.completedFuture(new EmbedResponse(vectors, "mini", null));
+        }
+
+        @Override
+        public CompletableFuture<BatchResponse> scoreSentences(String url, List<String> sentences,
+                                                               List<BatchQuery> queries, double threshold) {
+            scoreCalls.add(List.copyOf(queries));
+            List<BatchResult> results = queries.stream().map(query -> {
+                List<Double> scores = query.sentences().stream()
+                        .map(i -> entailment.getOrDefault(sentences.get(i), 0.1))
+                        .toList();
+                return new BatchResult(query.id(), scores.stream().anyMatch(score -> score > threshold), scores);
+            }).toList();
+            return CompletableFuture.completedFuture(new BatchResponse(results, "mnli", null));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.sentinel.sentinel.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FetchSchedulerTests {
+
+    /** Slack for the time that passes between calls; every expected delay is seconds long. */
+    private static final Duration SLACK = Duration.ofMillis(200);
+
+    private final FetchScheduler scheduler = new FetchScheduler(1.0, 4, Duration.ofSeconds(30), Duration.ofHours(1));
+
+    @Test
+    void burstGoesRightAwayThenTheSustainedRateApplies() {
+        for (int i = 0; i < 4; i++) {
+            assertThat(scheduler.reserve("https://example.com/" + i)).isCloseTo(Duration.ZERO, SLACK);
+        }
+        assertThat(scheduler.reserve("https://example.com/4")).isCloseTo(Duration.ofSeconds(1), SLACK);
+        assertThat(scheduler.reserve("https://example.com/5")).isCloseTo(Duration.ofSeconds(2), SLACK);
+    }
+
+    @Test
+    void hostsHaveTheirOwnBuckets() {
+        for (int i = 0; i < 6; i++) {
+            scheduler.reserve("https://busy.example.com/" + i);
+        }
+        assertThat(scheduler.reserve("https://quiet.example.com/")).isCloseTo(Duration.ZERO, SLACK);
+        // Hosts are compared case-insensitively
+        assertThat(scheduler.reserve("https://BUSY.example.com/again")).isCloseTo(Duration.ofSeconds(3), SLACK);
+    }
+
+    @Test
+    void retryAfterBlocksTheHostThenRequestsResumeAtTheSustainedRate() {
+        assertThat(scheduler.throttled("https://example.com/a", Duration.ofSeconds(30))).isEqualTo(Duration.ofSeconds(30));
+
+        assertThat(scheduler.reserve("https://example.com/b")).isCloseTo(Duration.ofSeconds(30), SLACK);
+        assertThat(scheduler.reserve("https://example.com/c")).isCloseTo(Duration.ofSeconds(31), SLACK);
+        assertThat(scheduler.reserve("https://other.example.com/")).isCloseTo(Duration.ZERO, SLACK);
+    }
+
+    @Test
+    void penaltyDoublesUntilTheHostAnswersNormally() {
+        assertThat(scheduler.throttled("https://example.com/", null)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(scheduler.throttled("https://example.com/", null)).isEqualTo(Duration.ofSeconds(60));
+        assertThat(scheduler.throttled("https://example.com/", null)).isEqualTo(Duration.ofSeconds(120));
+
+        scheduler.succeeded("https://example.com/");
+        assertThat(scheduler.throttled("https://example.com/", null)).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void blocksAreCapped() {
+        assertThat(scheduler.throttled("https://example.com/", Duration.ofHours(6))).isEqualTo(Duration.ofHours(1));
+        for (int i = 0; i < 30; i++) {
+            assertThat(scheduler.throttled("https://other.example.com/", null)).isLessThanOrEqualTo(Duration.ofHours(1));
+        }
+    }
+
+    @Test
+    void parsesRetryAfterSecondsAndDates() {
+        assertThat(FetchScheduler.parseRetryAfter("120")).isEqualTo(Duration.ofSeconds(120));
+        assertThat(FetchScheduler.parseRetryAfter(" 0 ")).isEqualTo(Duration.ZERO);
+        assertThat(FetchScheduler.parseRetryAfter("-5")).isEqualTo(Duration.ZERO);
+
+        String inTwoMinutes = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(2));
+        assertThat(FetchScheduler.parseRetryAfter(inTwoMinutes)).isCloseTo(Duration.ofMinutes(2), Duration.ofSeconds(2));
+        assertThat(FetchScheduler.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT")).isEqualTo(Duration.ZERO);
+
+        assertThat(FetchScheduler.parseRetryAfter("soon")).isNull();
+        assertThat(FetchScheduler.parseRetryAfter("")).isNull();
+        assertThat(FetchScheduler.parseRetryAfter(null)).isNull();
+    }
+}
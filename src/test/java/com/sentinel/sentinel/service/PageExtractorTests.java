@@ -0,0 +1,121 @@
+package com.sentinel.sentinel.service;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageExtractorTests {
+
+    private static final int NO_CAP = 100_000;
+
+    @Test
+    void keepsDocumentOrderAroundNestedBlocks() throws IOException {
+        Page.Section page = wholePage("<body><div>Intro. <p>Nested.</p> Tail.</div><p>One.</p>Loose text.</body>", NO_CAP);
+
+        assertThat(page.sentences()).containsExactly("Intro.", "Nested.", "Tail.", "One.", "Loose text.");
+        assertThat(page.truncated()).isFalse();
+    }
+
+    @Test
+    void splitsLikeTheTextOfTheParsedDocument() throws IOException {
+        List<String> pages = List.of(
+                "<h1>Results</h1><p>CSK scored 201 runs. MI lost.</p><div>Intro <p>Nested para.</p> tail text</div>After.",
+                "<ul><li>First item.</li><li>Second <b>bold</b> item.</li></ul><p>Line one.<br>Line two.</p>",
+                "<p>Spaces   and\n\tnewlines. Are <i>collapsed</i>!</p><table><tr><td>Cell A.</td><td>Cell B.</td></tr></table>"
+        );
+        for (String html : pages) {
+            String text = Jsoup.parse(html).body().text();
+            assertThat(wholePage(html, NO_CAP).sentences())
+                    .as(html)
+                    .containsExactlyElementsOf(Arrays.asList(text.split("(?<=[.!?])\\s+(?=[A-Z])")));
+        }
+    }
+
+    @Test
+    void extractsEverySelectorFromOneParse() throws IOException {
+        String html = "<body><div id=\"score\"><p>CSK 201/3.</p><span>Overs 20.</span></div>"
+                + "<div class=\"news\"><p>Rain stops play.</p><span>Ignored span.</span></div></body>";
+
+        Map<String, Page.Section> sections = PageExtractor.extract(new StringReader(html), "https://example.com",
+                List.of(Page.WHOLE_PAGE, "#score", ".news p"), NO_CAP);
+
+        assertThat(sections.keySet()).containsExactly(Page.WHOLE_PAGE, "#score", ".news p");
+        assertThat(sections.get("#score").sentences()).containsExactly("CSK 201/3.", "Overs 20.");
+        assertThat(sections.get(".news p").sentences()).containsExactly("Rain stops play.");
+        assertThat(sections.get(Page.WHOLE_PAGE).sentences())
+                .containsExactly("CSK 201/3.", "Overs 20.", "Rain stops play.", "Ignored span.");
+    }
+
+    @Test
+    void invalidSelectorGivesAnEmptySection() throws IOException {
+        Map<String, Page.Section> sections = PageExtractor.extract(new StringReader("<p>Some text.</p>"),
+                "https://example.com", List.of(Page.WHOLE_PAGE, "div["), NO_CAP);
+
+        assertThat(sections.get("div[").sentences()).isEmpty();
+        assertThat(sections.get("div[").truncated()).isFalse();
+        assertThat(sections.get(Page.WHOLE_PAGE).sentences()).containsExactly("Some text.");
+    }
+
+    @Test
+    void sameTextHashesAlikeAndChangesChangeTheHash() throws IOException {
+        String hash = wholePage("<p>Price is 10.</p>", NO_CAP).hash();
+
+        assertThat(wholePage("<div><p>Price is   10.</p></div>", NO_CAP).hash()).isEqualTo(hash);
+        assertThat(wholePage("<p>Price is 11.</p>", NO_CAP).hash()).isNotEqualTo(hash);
+    }
+
+    @Test
+    void characterCapTruncatesTheSection() throws IOException {
+        Page.Section page = wholePage("<p>First sentence here. Second one is long.</p>", 20);
+
+        assertThat(page.sentences()).containsExactly("First sentence here.");
+        assertThat(page.truncated()).isTrue();
+    }
+
+    @Test
+    void stopsReadingOnceEverySectionIsFull() throws IOException {
+        String html = "<p>Lots of text.</p>".repeat(250_000);
+        CountingReader reader = new CountingReader(html);
+
+        Map<String, Page.Section> sections = PageExtractor.extract(reader, "https://example.com",
+                List.of(Page.WHOLE_PAGE, "p"), 1000);
+
+        assertThat(sections.values()).allMatch(Page.Section::truncated);
+        assertThat(reader.read).isLessThan(html.length() / 10);
+    }
+
+    private static Page.Section wholePage(String html, int maxChars) throws IOException {
+        return PageExtractor.extract(new StringReader(html), "https://example.com", List.of(Page.WHOLE_PAGE), maxChars)
+                .get(Page.WHOLE_PAGE);
+    }
+
+    /** Counts the characters the parser pulled. */
+    private static final class CountingReader extends Reader {
+        private final StringReader in;
+        long read;
+
+        CountingReader(String text) {
+            this.in = new StringReader(text);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int n = in.read(buffer, offset, length);
+            if (n > 0) read += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.sentinel.sentinel.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageFetcherTests {
+
+    private static final String BODY = "<p>First part.</p>" + "<p>Filler sentence.</p>".repeat(1000);
+
+    private HttpServer server;
+    private String url;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    void byteCapTruncatesEverySection() throws Exception {
+        Page page = fetcher(100).fetch(url);
+
+        Page.Section section = page.section(Page.WHOLE_PAGE);
+        assertThat(section.truncated()).isTrue();
+        assertThat(section.sentences()).first().isEqualTo("First part.");
+        assertThat(String.join(" ", section.sentences()).length()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void bodyUnderTheCapIsReadWhole() throws Exception {
+        Page page = fetcher(1_000_000).fetch(url);
+
+        Page.Section section = page.section(Page.WHOLE_PAGE);
+        assertThat(section.truncated()).isFalse();
+        assertThat(section.sentences()).hasSize(1001);
+    }
+
+    @Test
+    void hashDependsOnTheTextNotOnTheSelectorsThatExtractedIt() throws Exception {
+        PageFetcher fetcher = fetcher(1_000_000);
+
+        Page whole = fetcher.fetch(url);
+        Page both = fetcher.fetch(url, Set.of(Page.WHOLE_PAGE, "body"));
+
+        assertThat(both.section("body")).isEqualTo(whole.section(Page.WHOLE_PAGE));
+        assertThat(both.hash()).isEqualTo(whole.hash());
+    }
+
+    private static PageFetcher fetcher(long maxBodyBytes) {
+        return new PageFetcher(new FetchScheduler(1.0, 4, Duration.ofSeconds(30), Duration.ofHours(1)), maxBodyBytes, 100_000);
+    }
+}
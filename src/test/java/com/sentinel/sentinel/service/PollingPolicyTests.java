@@ -0,0 +1,86 @@
+package com.sentinel.sentinel.service;
+
+import com.sentinel.sentinel.SentinelProperties;
+import com.sentinel.sentinel.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PollingPolicyTests {
+
+    private static final Duration BASE = Duration.ofSeconds(30);
+
+    @Test
+    void baseIntervalIsTheShortestRequested() {
+        PollingPolicy policy = policy(0);
+        Task everyMinute = new Task("https://example.com", "first");
+        everyMinute.setIntervalSeconds(60);
+        Task everyTenSeconds = new Task("https://example.com", "second");
+        everyTenSeconds.setIntervalSeconds(10);
+
+        assertThat(policy.baseInterval(List.of(everyMinute, everyTenSeconds))).isEqualTo(Duration.ofSeconds(10));
+        assertThat(policy.baseInterval(List.of(everyMinute, new Task("https://example.com", "third")))).isEqualTo(BASE);
+        assertThat(policy.baseInterval(List.of())).isEqualTo(BASE);
+    }
+
+    @Test
+    void backsOffWhileUnchangedAndTightensOnChange() {
+        PollingPolicy policy = policy(0);
+
+        double factor = policy.adjust(1.0, false, BASE);
+        assertThat(factor).isEqualTo(1.5);
+        assertThat(policy.nextDelay(BASE, factor)).isEqualTo(Duration.ofSeconds(45));
+
+        factor = policy.adjust(factor, true, BASE);
+        assertThat(factor).isEqualTo(0.75);
+        assertThat(policy.nextDelay(BASE, factor)).isEqualTo(Duration.ofMillis(22_500));
+    }
+
+    @Test
+    void backoffStopsAtTheBounds() {
+        PollingPolicy policy = policy(0);
+
+        double factor = 1.0;
+        for (int i = 0; i < 50; i++) factor = policy.adjust(factor, false, BASE);
+        assertThat(factor).isEqualTo(30.0);
+        assertThat(policy.nextDelay(BASE, factor)).isEqualTo(Duration.ofMinutes(15));
+
+        // Tightening recovers right away instead of unwinding 50 steps of backoff
+        for (int i = 0; i < 50; i++) factor = policy.adjust(factor, true, BASE);
+        assertThat(factor).isEqualTo(1.0 / 3);
+        assertThat(policy.nextDelay(BASE, factor)).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void honoursRequestedIntervalsOutsideTheBounds() {
+        PollingPolicy policy = policy(0);
+        Duration hourly = Duration.ofHours(1);
+        Duration everySecond = Duration.ofSeconds(1);
+
+        assertThat(policy.nextDelay(hourly, policy.adjust(1.0, false, hourly))).isEqualTo(hourly);
+        assertThat(policy.nextDelay(everySecond, policy.adjust(1.0, true, everySecond))).isEqualTo(everySecond);
+    }
+
+    @Test
+    void jitterStaysWithinItsSpread() {
+        PollingPolicy policy = policy(0.1);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(policy.nextDelay(BASE, 1.0)).isBetween(Duration.ofSeconds(27), Duration.ofSeconds(33));
+            assertThat(policy.initialDelay(BASE)).isBetween(Duration.ZERO, BASE);
+        }
+    }
+
+    private static PollingPolicy policy(double jitter) {
+        SentinelProperties.Scheduler settings = new SentinelProperties.Scheduler();
+        settings.setDefaultInterval(BASE);
+        settings.setMinInterval(Duration.ofSeconds(10));
+        settings.setMaxInterval(Duration.ofMinutes(15));
+        settings.setBackoffMultiplier(1.5);
+        settings.setJitter(jitter);
+        return new PollingPolicy(settings);
+    }
+}
@@ -0,0 +1,365 @@
+package com.sentinel.sentinel.service;
+
+import com.sentinel.sentinel.SentinelProperties;
+import com.sentinel.sentinel.Task;
+import com.sentinel.sentinel.cluster.ClusterCoordinator;
+import com.sentinel.sentinel.cluster.InMemoryMembershipStore;
+import com.sentinel.sentinel.cluster.InMemoryTaskFeed;
+import com.sentinel.sentinel.cluster.MembershipStore;
+import com.sentinel.sentinel.cluster.TaskFeed;
+import com.sentinel.sentinel.matcher.JavaMatcher;
+import com.sentinel.sentinel.matcher.Matcher;
+import com.sentinel.sentinel.store.FsyncPolicy;
+import com.sentinel.sentinel.store.TaskStore;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskObserverServiceTests {
+
+    /** Far enough out that the timer never checks a target during a test; checks run through checkNow. */
+    private static final int NEVER = Integer.MAX_VALUE;
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private String url;
+    private volatile String body = "";
+
+    private TaskStore store;
+    private TaskObserverService observer;
+    private final RecordingMatcher matcher = new RecordingMatcher();
+    private final List<Node> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+
+        store = TaskStore.openDefault(dir.resolve(TaskStore.DEFAULT_FILE_NAME).toFile(), FsyncPolicy.NEVER);
+        SentinelProperties properties = new SentinelProperties();
+        properties.getMatcher().setEngine(JavaMatcher.ID);
+        observer = new TaskObserverService(properties, store);
+        observer.putMatcher(JavaMatcher.ID, matcher);
+    }
+
+    @AfterEach
+    void stop() {
+        nodes.forEach(Node::stop);
+        observer.stopObserving();
+        store.close();
+        server.stop(0);
+    }
+
+    @Test
+    void firstCheckScoresEverySentence() {
+        serve("Doors open at noon.", "Tickets are on sale.");
+        Task task = observe("the show was cancelled");
+
+        observer.checkNow(url);
+
+        assertThat(matcher.scored(task)).containsExactly(List.of("Doors open at noon.", "Tickets are on sale."));
+    }
+
+    @Test
+    void unchangedPageScoresNothing() {
+        serve("Doors open at noon.", "Tickets are on sale.");
+        Task task = observe("the show was cancelled");
+
+        observer.checkNow(url);
+        observer.checkNow(url);
+
+        assertThat(matcher.scored(task)).hasSize(1);
+    }
+
+    @Test
+    void addedSentenceIsTheOnlyOneScored() {
+        serve("Doors open at noon.", "Tickets are on sale.");
+        Task task = observe("the show was cancelled");
+        observer.checkNow(url);
+
+        serve("Doors open at noon.", "Parking is free.", "Tickets are on sale.");
+        observer.checkNow(url);
+
+        assertThat(matcher.scored(task)).element(1).isEqualTo(List.of("Parking is free."));
+    }
+
+    @Test
+    void removedSentenceIsScoredAgainWhenItComesBack() {
+        serve("Doors open at noon.", "Tickets are on sale.");
+        Task task = observe("the show was cancelled");
+        observer.checkNow(url);
+
+        // Nothing new to score, so the matcher isn't called at all
+        serve("Doors open at noon.");
+        observer.checkNow(url);
+        assertThat(matcher.scored(task)).hasSize(1);
+
+        serve("Doors open at noon.", "Tickets are on sale.");
+        observer.checkNow(url);
+        assertThat(matcher.scored(task)).element(1).isEqualTo(List.of("Tickets are on sale."));
+    }
+
+    @Test
+    void newTaskOnAChangedPageScoresEverySentence() {
+        serve("Doors open at noon.", "Tickets are on sale.");
+        Task first = observe("the show was cancelled");
+        observer.checkNow(url);
+
+        Task second = observe("the show was postponed");
+        serve("Doors open at noon.", "Tickets are on sale.", "Parking is free.");
+        observer.checkNow(url);
+
+        assertThat(matcher.scored(first)).element(1).isEqualTo(List.of("Parking is free."));
+        assertThat(matcher.scored(second))
+                .containsExactly(List.of("Doors open at noon.", "Tickets are on sale.", "Parking is free."));
+    }
+
+    @Test
+    void changedQueryScoresEverySentence() {
+        serve("Doors open at noon.", "Tickets are on sale.");
+        Task task = observe("the show was cancelled");
+        observer.checkNow(url);
+
+        task.setQuery("the show was postponed");
+        observer.checkNow(url);
+        serve("Doors open at noon.", "Tickets are on sale.", "Parking is free.");
+        observer.checkNow(url);
+
+        assertThat(matcher.scored(task)).containsExactly(
+                List.of("Doors open at noon.", "Tickets are on sale."),
+                List.of("Doors open at noon.", "Tickets are on sale."),
+                List.of("Parking is free."));
+    }
+
+    @Test
+    void changedSelectorScoresEverySentenceOfTheNewRegion() {
+        body = "<div id=\"news\"><p>Doors open at noon.</p><p>Tickets are on sale.</p></div><p>Parking is free.</p>";
+        Task task = observe("the show was cancelled");
+        observer.checkNow(url);
+
+        task.setSelector("#news");
+        observer.checkNow(url);
+
+        assertThat(matcher.scored(task)).element(1).isEqualTo(List.of("Doors open at noon.", "Tickets are on sale."));
+    }
+
+    @Test
+    void pausedTaskIsNotChecked() {
+        serve("Doors open at noon.");
+        Task paused = observe("the show was cancelled");
+        Task active = observe("the show was postponed");
+
+        observer.pause(paused.getId());
+        observer.checkNow(url);
+
+        assertThat(matcher.scored(paused)).isEmpty();
+        assertThat(matcher.scored(active)).hasSize(1);
+    }
+
+    @Test
+    void pausingEveryTaskOfATargetStopsItsTimer() {
+        Task first = observe("the show was cancelled");
+        Task second = observe("the show was postponed");
+        Future<?> next = nextCheck();
+
+        observer.pause(first.getId());
+        assertThat(next.isCancelled()).isFalse();
+
+        observer.pause(second.getId());
+        assertThat(next.isCancelled()).isTrue();
+        assertThat(nextCheck()).isNull();
+        assertThat(observer.armedChecks()).isZero();
+    }
+
+    @Test
+    void resumeArmsTheTargetOnce() {
+        Task first = observe("the show was cancelled");
+        Task second = observe("the show was postponed");
+        observer.pause(first.getId());
+        observer.pause(second.getId());
+
+        observer.resume(first.getId());
+        Future<?> next = nextCheck();
+        observer.resume(first.getId());
+        observer.resume(second.getId());
+
+        assertThat(next).isNotNull();
+        assertThat(nextCheck()).isSameAs(next);
+        assertThat(observer.armedChecks()).isEqualTo(1);
+    }
+
+    @Test
+    void cancellingTheLastTaskOfATargetFreesItsSchedule() {
+        Task first = observe("the show was cancelled");
+        Task second = observe("the show was postponed");
+        Future<?> next = nextCheck();
+        assertThat(observer.armedChecks()).isEqualTo(1);
+
+        observer.cancel(first.getId());
+        assertThat(nextCheck()).isSameAs(next);
+        assertThat(next.isCancelled()).isFalse();
+
+        observer.cancel(second.getId());
+        assertThat(next.isCancelled()).isTrue();
+        assertThat(nextCheck()).isNull();
+        assertThat(observer.armedChecks()).isZero();
+    }
+
+    @Test
+    void taskRegisteredOnAnotherNodeIsObservedAndCompletedByItsOwner() throws Exception {
+        serve("Doors open at noon.");
+        MembershipStore membership = new InMemoryMembershipStore();
+        TaskFeed feed = new InMemoryTaskFeed();
+        Node a = node("a", membership, feed);
+        Node b = node("b", membership, feed);
+        Node owner = a.cluster().owns(url) ? a : b;
+        Node other = owner == a ? b : a;
+
+        Task task = new Task(url, "the show was cancelled");
+        task.setIntervalSeconds(NEVER);
+        task.setMatcher(JavaMatcher.ID);
+        other.observer().registerAll(List.of(task));
+
+        await(() -> owner.observer().nextCheck(url) != null);
+        assertThat(owner.store().get(task.getId())).isPresent();
+        assertThat((Future<?>) other.observer().nextCheck(url)).isNull();
+
+        owner.matcher().matches = true;
+        owner.observer().checkNow(url);
+        assertThat(owner.matcher().scored(task)).hasSize(1);
+        await(() -> other.store().get(task.getId()).map(Task::isComplete).orElse(false));
+    }
+
+    @Test
+    void taskRemovedOnAnotherNodeStopsBeingObserved() throws Exception {
+        MembershipStore membership = new InMemoryMembershipStore();
+        TaskFeed feed = new InMemoryTaskFeed();
+        Node a = node("a", membership, feed);
+        Node b = node("b", membership, feed);
+        Node owner = a.cluster().owns(url) ? a : b;
+        Node other = owner == a ? b : a;
+
+        Task task = new Task(url, "the show was cancelled");
+        task.setIntervalSeconds(NEVER);
+        task.setMatcher(JavaMatcher.ID);
+        owner.observer().registerAll(List.of(task));
+        await(() -> other.store().get(task.getId()).isPresent());
+
+        other.observer().unregister(task.getId());
+
+        await(() -> owner.store().get(task.getId()).isEmpty());
+        assertThat((Future<?>) owner.observer().nextCheck(url)).isNull();
+    }
+
+    /** Serves a page with one paragraph per sentence. */
+    private void serve(String... sentences) {
+        StringBuilder html = new StringBuilder();
+        for (String sentence : sentences) {
+            html.append("<p>").append(sentence).append("</p>");
+        }
+        body = html.toString();
+    }
+
+    /** The target's next check, typed so AssertJ can pick an assertion for it. */
+    private Future<?> nextCheck() {
+        return observer.nextCheck(url);
+    }
+
+    private Task observe(String query) {
+        Task task = new Task(url, query);
+        task.setIntervalSeconds(NEVER);
+        task.setMatcher(JavaMatcher.ID);
+        return observer.registerAll(List.of(task)).get(0);
+    }
+
+    /** Starts a cluster node with its own store, and waits until every started node sees it. */
+    private Node node(String id, MembershipStore membership, TaskFeed feed) throws Exception {
+        Path nodeDir = Files.createDirectories(dir.resolve(id));
+        TaskStore nodeStore = new TaskStore(nodeDir.resolve(TaskStore.DEFAULT_FILE_NAME).toFile(), FsyncPolicy.NEVER);
+        ClusterCoordinator cluster = new ClusterCoordinator(id, null, membership, feed,
+                Duration.ofSeconds(5), Duration.ofMillis(50), 16);
+        SentinelProperties properties = new SentinelProperties();
+        properties.getMatcher().setEngine(JavaMatcher.ID);
+        TaskObserverService nodeObserver = new TaskObserverService(properties, nodeStore, cluster);
+        RecordingMatcher nodeMatcher = new RecordingMatcher();
+        nodeObserver.putMatcher(JavaMatcher.ID, nodeMatcher);
+        nodeObserver.startObserving();
+
+        Node node = new Node(nodeStore, cluster, nodeObserver, nodeMatcher);
+        nodes.add(node);
+        await(() -> nodes.stream().allMatch(started -> started.cluster().members().size() == nodes.size()));
+        return node;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("condition not met in time").isNegative();
+            Thread.sleep(20);
+        }
+    }
+
+    private record Node(TaskStore store, ClusterCoordinator cluster, TaskObserverService observer, RecordingMatcher matcher) {
+        void stop() {
+            observer.stopObserving();
+            store.close();
+        }
+    }
+
+    /** Records the sentences each task was matched against, and matches once told to. */
+    static class RecordingMatcher implements Matcher {
+        private final Map<String, List<List<String>>> scored = new ConcurrentHashMap<>();
+        volatile boolean matches;
+
+        @Override
+        public String id() {
+            return JavaMatcher.ID;
+        }
+
+        @Override
+        public CompletableFuture<Map<String, Boolean>> match(String url, List<String> sentences, List<Task> tasks) {
+            Map<String, Boolean> results = new HashMap<>();
+            for (Task task : tasks) {
+                scored.computeIfAbsent(task.getId(), id -> new ArrayList<>()).add(List.copyOf(sentences));
+                results.put(task.getId(), matches);
+            }
+            return CompletableFuture.completedFuture(results);
+        }
+
+        /** @return the sentences of each call that included the task, in order */
+        List<List<String>> scored(Task task) {
+            return scored.getOrDefault(task.getId(), List.of());
+        }
+    }
+}
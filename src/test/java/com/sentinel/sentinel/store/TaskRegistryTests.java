@@ -0,0 +1,243 @@
+package com.sentinel.sentinel.store;
+
+import com.sentinel.sentinel.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskRegistryTests {
+
+    private final TaskRegistry registry = new TaskRegistry();
+
+    @Test
+    void roundTripsEveryFieldForUuidAndIrregularIds() {
+        Task uuid = task(UUID.randomUUID().toString(), "https://example.com", "first", true);
+        uuid.setIntervalSeconds(90);
+        uuid.setMatcher("java");
+        uuid.setTopK(3);
+        uuid.setSelector("#score");
+        Task irregular = task("legacy-7", "https://example.com", "second", false);
+        Task upperCase = task(UUID.randomUUID().toString().toUpperCase(), "https://example.org", "third", false);
+
+        registry.put(uuid);
+        registry.put(irregular);
+        registry.put(upperCase);
+
+        Task stored = registry.get(uuid.getId());
+        assertThat(stored.getId()).isEqualTo(uuid.getId());
+        assertThat(stored.isComplete()).isTrue();
+        assertThat(stored.getIntervalSeconds()).isEqualTo(90);
+        assertThat(stored.getMatcher()).isEqualTo("java");
+        assertThat(stored.getTopK()).isEqualTo(3);
+        assertThat(stored.getSelector()).isEqualTo("#score");
+        assertThat(registry.get("legacy-7").getQuery()).isEqualTo("second");
+        assertThat(registry.get(upperCase.getId()).getId()).isEqualTo(upperCase.getId());
+        assertThat(registry.get("missing")).isNull();
+        assertThat(registry.size()).isEqualTo(3);
+    }
+
+    @Test
+    void replacingATaskKeepsItsPlace() {
+        Task first = task(UUID.randomUUID().toString(), "https://example.com", "first", false);
+        Task second = task(UUID.randomUUID().toString(), "https://example.com", "second", false);
+        registry.put(first);
+        registry.put(second);
+
+        registry.put(task(first.getId(), "https://example.org", "moved", false));
+
+        assertThat(registry.all()).extracting(Task::getQuery).containsExactly("moved", "second");
+        assertThat(registry.findId("https://example.com", "first", false)).isNull();
+        assertThat(registry.findId("https://example.org", "moved", false)).isEqualTo(first.getId());
+    }
+
+    @Test
+    void findIdWalksDuplicatesInInsertionOrder() {
+        Task done = task(UUID.randomUUID().toString(), "https://example.com", "same", true);
+        Task pending = task(UUID.randomUUID().toString(), "https://example.com", "same", false);
+        Task later = task(UUID.randomUUID().toString(), "https://example.com", "same", false);
+        registry.put(done);
+        registry.put(pending);
+        registry.put(later);
+
+        assertThat(registry.findId("https://example.com", "same", true)).isEqualTo(done.getId());
+        assertThat(registry.findId("https://example.com", "same", false)).isEqualTo(pending.getId());
+
+        registry.remove(done.getId());
+        registry.remove(pending.getId());
+        assertThat(registry.findId("https://example.com", "same", false)).isEqualTo(later.getId());
+        assertThat(registry.findId("https://example.com", "same", true)).isNull();
+        assertThat(registry.findId("https://example.net", "same", false)).isNull();
+    }
+
+    @Test
+    void setCompleteReportsThePreviousState() {
+        Task task = task(UUID.randomUUID().toString(), "https://example.com", "first", false);
+        registry.put(task);
+        long version = registry.version();
+
+        assertThat(registry.setComplete(task.getId(), true)).isFalse();
+        assertThat(registry.setComplete(task.getId(), true)).isTrue();
+        assertThat(registry.setComplete("missing", true)).isNull();
+        assertThat(registry.version()).isEqualTo(version + 1);
+        assertThat(registry.findId("https://example.com", "first", true)).isEqualTo(task.getId());
+    }
+
+    @Test
+    void unknownMatcherChangesNothing() {
+        Task task = task(UUID.randomUUID().toString(), "https://example.com", "first", false);
+        registry.put(task);
+        long version = registry.version();
+
+        Task replacement = task(task.getId(), "https://example.org", "moved", false);
+        replacement.setMatcher("regex");
+        assertThatThrownBy(() -> registry.put(replacement)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(registry.version()).isEqualTo(version);
+        assertThat(registry.get(task.getId()).getQuery()).isEqualTo("first");
+    }
+
+    @Test
+    void listsPagesWithFiltersAndStableCursors() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Task task = task(UUID.randomUUID().toString(), "https://example.com/" + (i % 2), "Query " + i, i % 3 == 0);
+            registry.put(task);
+            ids.add(task.getId());
+        }
+
+        TaskPage first = registry.list(new TaskFilter(null, "https://example.com/0", null), 0, 3);
+        assertThat(first.tasks()).extracting(Task::getQuery).containsExactly("Query 0", "Query 2", "Query 4");
+
+        // Removing a task already listed, and adding one, doesn't shift the next page
+        registry.remove(ids.get(2));
+        registry.put(task(UUID.randomUUID().toString(), "https://example.com/0", "Query 10", false));
+        TaskPage second = registry.list(new TaskFilter(null, "https://example.com/0", null), Long.parseLong(first.nextCursor()), 3);
+        assertThat(second.tasks()).extracting(Task::getQuery).containsExactly("Query 6", "Query 8", "Query 10");
+        assertThat(second.nextCursor()).isNull();
+
+        TaskPage complete = registry.list(new TaskFilter(true, null, "query"), 0, 10);
+        assertThat(complete.tasks()).extracting(Task::getQuery).containsExactly("Query 0", "Query 3", "Query 6", "Query 9");
+    }
+
+    @Test
+    void reclaimingRemovedSlotsKeepsLookupsAndCursors() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            // Every tenth id is irregular so both id tables go through the rebuild
+            String id = i % 10 == 0 ? "task-" + i : UUID.randomUUID().toString();
+            Task task = task(id, "https://example.com/" + (i % 50), "query " + (i % 700), false);
+            registry.put(task);
+            tasks.add(task);
+        }
+        TaskPage before = registry.list(TaskFilter.ALL, 0, 2900);
+
+        for (int i = 0; i < 2600; i++) {
+            assertThat(registry.remove(tasks.get(i).getId())).isTrue();
+        }
+
+        assertThat(registry.size()).isEqualTo(400);
+        for (Task task : tasks.subList(2600, 3000)) {
+            Task stored = registry.get(task.getId());
+            assertThat(stored.getTarget()).isEqualTo(task.getTarget());
+            assertThat(stored.getQuery()).isEqualTo(task.getQuery());
+            assertThat(registry.findId(task.getTarget(), task.getQuery(), false)).isEqualTo(task.getId());
+        }
+        assertThat(registry.get(tasks.get(0).getId())).isNull();
+
+        TaskPage after = registry.list(TaskFilter.ALL, Long.parseLong(before.nextCursor()), 1000);
+        assertThat(after.tasks()).extracting(Task::getId)
+                .containsExactlyElementsOf(tasks.subList(2900, 3000).stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void matchesAMapUnderRandomChurn() {
+        Random random = new Random(42);
+        Map<String, Task> expected = new HashMap<>();
+        List<String> ids = new ArrayList<>();
+        for (int step = 0; step < 20_000; step++) {
+            if (ids.isEmpty() || random.nextInt(3) > 0) {
+                Task task = task(UUID.randomUUID().toString(), "https://example.com/" + random.nextInt(20),
+                        "query " + random.nextInt(200), random.nextBoolean());
+                registry.put(task);
+                expected.put(task.getId(), task);
+                ids.add(task.getId());
+            } else {
+                String id = ids.remove(random.nextInt(ids.size()));
+                assertThat(registry.remove(id)).isTrue();
+                expected.remove(id);
+            }
+        }
+
+        assertThat(registry.size()).isEqualTo(expected.size());
+        for (Task task : expected.values()) {
+            Task stored = registry.get(task.getId());
+            assertThat(stored.getQuery()).isEqualTo(task.getQuery());
+            assertThat(stored.isComplete()).isEqualTo(task.isComplete());
+        }
+        assertThat(registry.all()).extracting(Task::getId).containsExactlyInAnyOrderElementsOf(expected.keySet());
+    }
+
+    @Test
+    void readersNeverSeeATornTaskWhileWritersChurn() throws InterruptedException {
+        List<Task> stable = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Task task = task(UUID.randomUUID().toString(), "https://stable.example/" + i, "stable " + i, false);
+            registry.put(task);
+            stable.add(task);
+        }
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    while (!done.get()) {
+                        for (Task task : stable) {
+                            Task stored = registry.get(task.getId());
+                            assertThat(stored).isNotNull();
+                            assertThat(stored.getTarget()).isEqualTo(task.getTarget());
+                            assertThat(stored.getQuery()).isEqualTo(task.getQuery());
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        // Enough churn to grow the arrays, rehash the tables and reclaim dead slots several times
+        for (int round = 0; round < 5; round++) {
+            List<String> churn = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                Task task = task(UUID.randomUUID().toString(), "https://churn.example/" + (i % 30), "churn " + i, false);
+                registry.put(task);
+                churn.add(task.getId());
+            }
+            churn.forEach(registry::remove);
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertThat(failure.get()).isNull();
+        assertThat(registry.size()).isEqualTo(100);
+    }
+
+    private static Task task(String id, String target, String query, boolean complete) {
+        return new Task(id, target, query, complete);
+    }
+}
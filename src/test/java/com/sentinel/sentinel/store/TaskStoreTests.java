@@ -0,0 +1,229 @@
+package com.sentinel.sentinel.store;
+
+import com.sentinel.sentinel.Task;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskStoreTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysLogOverSnapshotAndSkipsTornTail() throws IOException {
+        Files.writeString(dir.resolve(".task_log.json"), """
+                {"taskList": [
+                  {"id": "a", "target": "https://example.com", "query": "first", "complete": false},
+                  {"id": "b", "target": "https://example.com", "query": "second", "complete": false}
+                ]}
+                """);
+        Files.writeString(dir.resolve(".task_log.wal"), """
+                {"op":"complete","id":"a","complete":true}
+                {"op":"remove","id":"b"}
+                {"op":"put","id":"c","target":"https://example.org","query":"thi""");
+
+        TaskStore store = open();
+        try {
+            assertThat(store.isNew()).isFalse();
+            assertThat(store.getTasks()).extracting(Task::getId).containsExactly("a");
+            assertThat(store.get("a")).hasValueSatisfying(task -> assertThat(task.isComplete()).isTrue());
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void writesAfterATornTailStartOnAFreshLine() throws IOException {
+        Files.writeString(dir.resolve(".task_log.wal"), """
+                {"op":"put","id":"a","target":"https://example.com","query":"first","complete":false}
+                {"op":"put","id":"b","tar""");
+
+        TaskStore store = open();
+        store.add(new Task("c", "https://example.com", "third", false), true);
+        store.close();
+
+        TaskStore reopened = open();
+        try {
+            assertThat(reopened.getTasks()).extracting(Task::getId).containsExactly("a", "c");
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void compactsOnceTheLogOutgrowsTheSnapshot() throws IOException {
+        TaskStore store = open();
+        List<String> ids = new ArrayList<>();
+        try {
+            for (int i = 0; i < TaskStore.COMPACTION_THRESHOLD - 1; i++) {
+                Task task = new Task("https://example.com/" + (i % 7), "query " + i);
+                store.add(task, false);
+                ids.add(task.getId());
+            }
+            assertThat(dir.resolve(".task_log.json")).doesNotExist();
+
+            store.setComplete(ids.get(0), true);
+            assertThat(dir.resolve(".task_log.json")).exists();
+            assertThat(Files.size(dir.resolve(".task_log.wal"))).isZero();
+
+            store.remove(ids.get(1));
+        } finally {
+            store.close();
+        }
+
+        TaskStore reopened = open();
+        try {
+            assertThat(reopened.size()).isEqualTo(TaskStore.COMPACTION_THRESHOLD - 2);
+            assertThat(reopened.get(ids.get(0))).hasValueSatisfying(task -> assertThat(task.isComplete()).isTrue());
+            assertThat(reopened.get(ids.get(1))).isEmpty();
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void closeFoldsTheLogIntoTheSnapshot() throws IOException {
+        TaskStore store = open();
+        Task task = new Task("https://example.com", "first");
+        task.setMatcher("java");
+        task.setTopK(4);
+        task.setSelector("#main");
+        store.add(task, false);
+        store.close();
+
+        assertThat(Files.size(dir.resolve(".task_log.wal"))).isZero();
+        TaskStore reopened = open();
+        try {
+            assertThat(reopened.get(task.getId())).hasValueSatisfying(stored -> {
+                assertThat(stored.getMatcher()).isEqualTo("java");
+                assertThat(stored.getTopK()).isEqualTo(4);
+                assertThat(stored.getSelector()).isEqualTo("#main");
+            });
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void isNewOnlyWithoutSnapshotOrLog() throws IOException {
+        TaskStore store = open();
+        assertThat(store.isNew()).isTrue();
+        Task task = new Task("https://example.com", "first");
+        store.add(task, false);
+        store.remove(task.getId());
+        store.close();
+
+        TaskStore reopened = open();
+        try {
+            assertThat(reopened.isNew()).isFalse();
+            assertThat(reopened.size()).isZero();
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void skipsDuplicatesUnlessForced() {
+        TaskStore store = open();
+        try {
+            assertThat(store.add(new Task("https://example.com", "first"), false)).isTrue();
+            assertThat(store.add(new Task("https://example.com", "first"), false)).isFalse();
+            assertThat(store.add(new Task("https://example.com", "first"), true)).isTrue();
+
+            List<Task> added = store.addAll(List.of(
+                    new Task("https://example.com", "first"),
+                    new Task("https://example.com", "second"),
+                    new Task("https://example.com", "second")), false);
+            assertThat(added).extracting(Task::getQuery).containsExactly("second");
+            assertThat(store.size()).isEqualTo(3);
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void rejectsUnknownMatcherBeforeLoggingAnything() throws IOException {
+        TaskStore store = open();
+        Task bad = new Task("https://example.com", "second");
+        bad.setMatcher("regex");
+        try {
+            assertThatThrownBy(() -> store.addAll(List.of(new Task("https://example.com", "first"), bad), false))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThat(store.size()).isZero();
+        } finally {
+            store.close();
+        }
+
+        TaskStore reopened = open();
+        try {
+            assertThat(reopened.size()).isZero();
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void loadsAStoredInvalidSelectorAsTheWholePage() throws IOException {
+        Files.writeString(dir.resolve(".task_log.json"), """
+                {"taskList": [
+                  {"id": "a", "target": "https://example.com", "query": "first", "complete": false, "selector": "div["},
+                  {"id": "b", "target": "https://example.com", "query": "second", "complete": false, "selector": "#main"}
+                ]}
+                """);
+
+        TaskStore store = open();
+        try {
+            assertThat(store.get("a")).hasValueSatisfying(task -> assertThat(task.getSelector()).isNull());
+            assertThat(store.get("b")).hasValueSatisfying(task -> assertThat(task.getSelector()).isEqualTo("#main"));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void refusesASecondOpenOfTheSameLog() {
+        TaskStore store = open();
+        try {
+            assertThatThrownBy(this::open).hasMessageContaining("Could not open task store");
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void closingTheDefaultStoreLetsItBeOpenedAgainInTheSameProcess() {
+        File snapshot = dir.resolve(TaskStore.DEFAULT_FILE_NAME).toFile();
+        TaskStore first = TaskStore.openDefault(snapshot, FsyncPolicy.NEVER);
+        try {
+            assertThat(TaskStore.getDefault()).isSameAs(first);
+            assertThatThrownBy(() -> TaskStore.openDefault(snapshot, FsyncPolicy.NEVER))
+                    .isInstanceOf(IllegalStateException.class);
+            first.add(new Task("https://example.com", "first"), false);
+        } finally {
+            first.close();
+        }
+
+        TaskStore second = TaskStore.openDefault(snapshot, FsyncPolicy.NEVER);
+        try {
+            assertThat(TaskStore.getDefault()).isSameAs(second);
+            assertThat(second.getTasks()).extracting(Task::getQuery).containsExactly("first");
+        } finally {
+            second.close();
+        }
+    }
+
+    private TaskStore open() {
+        File snapshot = dir.resolve(TaskStore.DEFAULT_FILE_NAME).toFile();
+        return new TaskStore(snapshot, FsyncPolicy.NEVER);
+    }
+}
@@ -0,0 +1,109 @@
+package com.sentinel.sentinel.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WriteAheadLogTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void concurrentAppendsAllLandWholeAndInCallerOrder() throws Exception {
+        File file = dir.resolve("log.wal").toFile();
+        WriteAheadLog wal = new WriteAheadLog(file, FsyncPolicy.BATCH);
+        ExecutorService writers = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Void>> written = new ArrayList<>();
+            for (int writer = 0; writer < 8; writer++) {
+                int w = writer;
+                written.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        WriteAheadLog.await(wal.append(List.of(w + ":" + i + ":a", w + ":" + i + ":b")));
+                    }
+                }, writers));
+            }
+            CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            writers.shutdown();
+            wal.close();
+        }
+
+        List<String> lines = Files.readAllLines(file.toPath());
+        assertThat(lines).hasSize(8 * 500 * 2);
+        int[] next = new int[8];
+        for (int i = 0; i < lines.size(); i += 2) {
+            String[] first = lines.get(i).split(":");
+            int writer = Integer.parseInt(first[0]);
+            // Both lines of one append are written together, and each writer's appends stay in order
+            assertThat(lines.get(i + 1)).isEqualTo(first[0] + ":" + first[1] + ":b");
+            assertThat(Integer.parseInt(first[1])).isEqualTo(next[writer]++);
+        }
+    }
+
+    @Test
+    void startsOnAFreshLineAfterATornTail() throws IOException {
+        File file = dir.resolve("log.wal").toFile();
+        Files.writeString(file.toPath(), "whole\ntor");
+
+        WriteAheadLog wal = new WriteAheadLog(file, FsyncPolicy.NEVER);
+        wal.append(List.of("next"));
+        wal.close();
+
+        assertThat(Files.readAllLines(file.toPath())).containsExactly("whole", "tor", "next");
+    }
+
+    @Test
+    void truncateDropsOnlyWhatWasQueuedBeforeIt() throws IOException {
+        File file = dir.resolve("log.wal").toFile();
+        WriteAheadLog wal = new WriteAheadLog(file, FsyncPolicy.ALWAYS);
+        try {
+            wal.append(List.of("old"));
+            wal.truncate();
+            WriteAheadLog.await(wal.append(List.of("new")));
+            wal.sync();
+            assertThat(Files.readAllLines(file.toPath())).containsExactly("new");
+        } finally {
+            wal.close();
+        }
+    }
+
+    @Test
+    void closeWritesWhatIsQueuedAndRejectsLaterAppends() throws IOException {
+        File file = dir.resolve("log.wal").toFile();
+        WriteAheadLog wal = new WriteAheadLog(file, FsyncPolicy.NEVER);
+        for (int i = 0; i < 100; i++) {
+            wal.append(List.of("line " + i));
+        }
+        wal.close();
+
+        assertThat(Files.readAllLines(file.toPath())).hasSize(100).endsWith("line 99");
+        assertThatThrownBy(() -> wal.append(List.of("late"))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void refusesASecondWriter() throws IOException {
+        File file = dir.resolve("log.wal").toFile();
+        WriteAheadLog wal = new WriteAheadLog(file, FsyncPolicy.NEVER);
+        try {
+            assertThatThrownBy(() -> new WriteAheadLog(file, FsyncPolicy.NEVER))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("already open");
+        } finally {
+            wal.close();
+        }
+    }
+}